@@ -0,0 +1,72 @@
+package reactives4j.benchmarks;
+
+import reactives4j.core.Context;
+import reactives4j.core.NodeType;
+import reactives4j.core.Reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reports the retained heap per node for each {@link NodeType}, including the bookkeeping of the runtime.
+ * <p> Each type is measured on a fresh synced context holding one million nodes. Functions are shared between
+ * nodes, so only the cost of the nodes themselves is counted. Watch nodes all watch the same reactive value,
+ * so their cost includes one subscription each. Run with a fixed heap for stable numbers: </p>
+ * <pre>
+ * java -Xms4g -Xmx4g -cp benchmarks/target/benchmarks.jar reactives4j.benchmarks.NodeFootprint
+ * </pre>
+ */
+public class NodeFootprint {
+
+    private static final int Count = 1_000_000;
+
+    private static final Supplier<Integer> Function = () -> 0;
+
+    private static final Runnable Action = () -> { };
+
+    private static final Consumer<Integer> Watcher = value -> { };
+
+    public static void main(String[] args) {
+        for (var type : NodeType.values()) {
+            // the first run warms up the classes of the runtime
+            measure(type);
+            System.out.printf("%-8s %6.1f bytes/node%n", type, measure(type));
+        }
+    }
+
+    private static double measure(NodeType type) {
+        var cx = Context.create();
+        var source = cx.reactive(0);
+        var handles = new ArrayList<>(Count);
+        var before = usedMemory();
+        create(cx, type, source, handles);
+        var after = usedMemory();
+        // keeps the nodes reachable until measured
+        if (handles.size() != Count) throw new IllegalStateException();
+        cx.dispose();
+        return (after - before) / (double) Count;
+    }
+
+    private static void create(Context cx, NodeType type, Reactive<Integer> source, List<Object> handles) {
+        for (int i = 0; i < Count; i++) {
+            handles.add(switch (type) {
+                case Reactive -> cx.reactive(0);
+                case Trigger -> cx.trigger();
+                case Memo -> cx.memo(Function, true);
+                case Effect -> cx.effect(Action, true);
+                case Watch -> cx.watchEffect(source, Watcher, false);
+            });
+        }
+    }
+
+    private static long usedMemory() {
+        var runtime = java.lang.Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,111 @@
+package reactives4j.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactives4j.core.Context;
+import reactives4j.core.Memo;
+import reactives4j.core.Reactive;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of reactive values on a synced context, which run on the calling thread.
+ * <p> Run with the allocation profiler to check the allocations per operation. Reads of reactive values and of clean
+ * memos should report a {@code gc.alloc.rate.norm} of 0 B/op, writes only allocate during propagation: </p>
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar SyncedAccessBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyncedAccessBenchmark {
+
+    /**
+     * Preallocated values, so that boxing does not show up in the allocation rate.
+     */
+    private final Integer[] values = new Integer[1024];
+
+    private Context cx;
+
+    private Reactive<Integer> value;
+
+    private Reactive<Integer> source;
+
+    private Reactive<Integer> observed;
+
+    private Memo<Integer> memo;
+
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        cx = Context.create();
+        value = cx.reactive(0);
+        observed = cx.reactive(0);
+        source = cx.reactive(0);
+        memo = cx.memo(() -> source.get() + 1);
+        memo.get();
+        var sink = cx.reactive(0);
+        cx.effect(() -> sink.setUntracked(observed.get()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        cx.dispose();
+    }
+
+    @Benchmark
+    public Integer get() {
+        return value.get();
+    }
+
+    /**
+     * Write of a value without subscribers.
+     */
+    @Benchmark
+    public void set() {
+        value.set(next());
+    }
+
+    @Benchmark
+    public Integer memoGet() {
+        return memo.get();
+    }
+
+    @Benchmark
+    public void setAndGetMemo(Blackhole blackhole) {
+        source.set(next());
+        blackhole.consume(memo.get());
+    }
+
+    /**
+     * Write of a value observed by an effect, including the propagation pass.
+     */
+    @Benchmark
+    public void setObserved() {
+        observed.set(next());
+    }
+
+    private Integer next() {
+        index = (index + 1) & (values.length - 1);
+        return values[index];
+    }
+
+}
@@ -0,0 +1,236 @@
+package reactives4j.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor generating the reactive models of the classes annotated with
+ * {@code reactives4j.core.ReactiveModel}.
+ * <p> For an annotated class {@code Point}, a final class {@code PointModel} extending
+ * {@code reactives4j.core.ReactiveObject} is generated in the same package. The instance fields of {@code Point}
+ * are copied as plain fields, primitives staying unboxed, and each field is assigned the index of its node slot,
+ * in declaration order. The generated class has: </p>
+ * <ul>
+ *     <li>a constructor taking the context, leaving the fields to their default values</li>
+ *     <li>a constructor taking the context and the initial value of every field</li>
+ *     <li>a tracked getter and a setter per field, the setter only triggering observers if the value changed</li>
+ *     <li>a getter per field reading the value at the version of a {@code reactives4j.core.PinnedView}</li>
+ *     <li>an {@code update} method applying all the writes of the given function as a single batch</li>
+ * </ul>
+ */
+@SupportedAnnotationTypes(ReactiveModelProcessor.Annotation)
+public class ReactiveModelProcessor extends AbstractProcessor {
+
+    static final String Annotation = "reactives4j.core.ReactiveModel";
+
+    private static final String Base = "reactives4j.core.ReactiveObject";
+
+    private static final String Context = "reactives4j.core.Context";
+
+    private static final String View = "reactives4j.core.PinnedView";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (var annotation : annotations) {
+            for (var element : round.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@ReactiveModel only applies to classes");
+                    continue;
+                }
+                var type = (TypeElement) element;
+                if (!type.getTypeParameters().isEmpty()) {
+                    error(element, "@ReactiveModel classes cannot have type parameters");
+                    continue;
+                }
+                generate(type);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        var fields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .toList();
+        var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        var name = modelName(type);
+        var qualifiedName = packageName.isEmpty() ? name : packageName + "." + name;
+
+        try (var out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Reactive model of {@link " + type.getQualifiedName() + "}.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + name + " extends " + Base + " {");
+            out.println();
+            for (var field : fields) {
+                out.println("    private " + field.asType() + " " + field.getSimpleName() + ";");
+                out.println();
+            }
+            writeConstructors(out, name, fields);
+            for (int slot = 0; slot < fields.size(); slot++) {
+                writeAccessors(out, fields.get(slot), slot);
+            }
+            writeFieldAccess(out, fields);
+            writeUpdate(out, name);
+            writeToString(out, name, fields);
+            out.println("}");
+        } catch (IOException e) {
+            error(type, "Failed to generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void writeConstructors(PrintWriter out, String name, List<VariableElement> fields) {
+        out.println("    public " + name + "(@org.jetbrains.annotations.NotNull " + Context + " cx) {");
+        out.println("        super(cx, " + fields.size() + ");");
+        out.println("        initialized();");
+        out.println("    }");
+        out.println();
+        if (fields.isEmpty()) return;
+
+        var parameters = new StringBuilder();
+        for (var field : fields) {
+            parameters.append(", ").append(field.asType()).append(" ").append(field.getSimpleName());
+        }
+        out.println("    public " + name + "(@org.jetbrains.annotations.NotNull " + Context + " cx" + parameters + ") {");
+        out.println("        super(cx, " + fields.size() + ");");
+        for (var field : fields) {
+            out.println("        this." + field.getSimpleName() + " = " + field.getSimpleName() + ";");
+        }
+        out.println("        initialized();");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeAccessors(PrintWriter out, VariableElement field, int slot) {
+        var type = field.asType();
+        var fieldName = field.getSimpleName().toString();
+        var property = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        var getter = (type.getKind() == TypeKind.BOOLEAN ? "is" : "get") + property;
+        var unchanged = type.getKind().isPrimitive()
+                ? "this." + fieldName + " == value"
+                : "java.util.Objects.equals(this." + fieldName + ", value)";
+
+        out.println("    public " + type + " " + getter + "() {");
+        out.println("        track(" + slot + ");");
+        out.println("        return " + fieldName + ";");
+        out.println("    }");
+        out.println();
+        out.println("    @SuppressWarnings(\"unchecked\")");
+        out.println("    public " + type + " " + getter + "(@org.jetbrains.annotations.NotNull " + View + " view) {");
+        out.println("        return (" + type + ") pinned(view, " + slot + ");");
+        out.println("    }");
+        out.println();
+        out.println("    public void set" + property + "(" + type + " value) {");
+        out.println("        if (!isOwner()) {");
+        out.println("            write(() -> set" + property + "(value));");
+        out.println("            return;");
+        out.println("        }");
+        out.println("        if (" + unchanged + ") return;");
+        out.println("        this." + fieldName + " = value;");
+        out.println("        changed(" + slot + ");");
+        out.println("    }");
+        out.println();
+    }
+
+    /**
+     * Writes the boxed access to the fields by slot, used by the runtime to journal, publish and version them.
+     */
+    private void writeFieldAccess(PrintWriter out, List<VariableElement> fields) {
+        out.println("    @Override");
+        out.println("    protected Object readField(int field) {");
+        out.println("        switch (field) {");
+        for (int slot = 0; slot < fields.size(); slot++) {
+            out.println("            case " + slot + " -> { return " + fields.get(slot).getSimpleName() + "; }");
+        }
+        out.println("            default -> throw new IndexOutOfBoundsException(field);");
+        out.println("        }");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    @SuppressWarnings(\"unchecked\")");
+        out.println("    protected void writeField(int field, Object value) {");
+        out.println("        switch (field) {");
+        for (int slot = 0; slot < fields.size(); slot++) {
+            var field = fields.get(slot);
+            out.println("            case " + slot + " -> this." + field.getSimpleName()
+                    + " = (" + field.asType() + ") value;");
+        }
+        out.println("            default -> throw new IndexOutOfBoundsException(field);");
+        out.println("        }");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeUpdate(PrintWriter out, String name) {
+        out.println("    /**");
+        out.println("     * Applies all the writes of the given function as a single batch,");
+        out.println("     * so observers of several fields only run once.");
+        out.println("     */");
+        out.println("    public void update(@org.jetbrains.annotations.NotNull java.util.function.Consumer<? super "
+                + name + "> changes) {");
+        out.println("        batch(() -> changes.accept(this));");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeToString(PrintWriter out, String name, List<VariableElement> fields) {
+        var joined = new StringBuilder();
+        for (var field : fields) {
+            if (!joined.isEmpty()) joined.append(" + \", ");
+            else joined.append("\"");
+            joined.append(field.getSimpleName()).append("=\" + ").append(field.getSimpleName());
+        }
+        out.println("    @Override");
+        out.println("    public String toString() {");
+        out.println("        return \"" + name + "(\" + "
+                + (fields.isEmpty() ? "" : joined + " + ") + "\")\";");
+        out.println("    }");
+        out.println();
+    }
+
+    /**
+     * Returns the simple name of the generated class, as set on the annotation or derived from the annotated class.
+     */
+    private String modelName(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(Annotation)) continue;
+            for (var entry : mirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("name")) continue;
+                var name = (String) ((AnnotationValue) entry.getValue()).getValue();
+                if (!name.isEmpty()) return name;
+            }
+        }
+        return type.getSimpleName() + "Model";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
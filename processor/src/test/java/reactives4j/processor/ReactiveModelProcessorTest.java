@@ -0,0 +1,199 @@
+package reactives4j.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactives4j.core.Context;
+import reactives4j.core.PinnedView;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveModelProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void test1() throws Exception {
+        var errors = compile("models.AccountSpec", """
+                package models;
+
+                import reactives4j.core.ReactiveModel;
+
+                import java.util.List;
+
+                @ReactiveModel(name = "Account")
+                public class AccountSpec {
+                    String owner;
+                    boolean active;
+                    long balance;
+                    List<String> tags;
+                    int[] limits;
+                    static int ignored;
+                }
+                """);
+        assertEquals(List.of(), errors);
+        assertTrue(Files.exists(output.resolve("models/Account.java")));
+
+        try (var loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            var type = loader.loadClass("models.Account");
+            var cx = Context.create().withVersioning();
+            var limits = new int[]{1, 2};
+            var account = type.getConstructor(Context.class, String.class, boolean.class, long.class, List.class,
+                    int[].class).newInstance(cx, "ann", true, 5L, List.of("a"), limits);
+            var initial = cx.pin();
+
+            // getters are tracked, and setters only trigger observers if the value changed
+            var trace = new ArrayList<Long>();
+            cx.effect(() -> trace.add((Long) call(account, "getBalance")));
+            call(account, "setBalance", long.class, 5L);
+            call(account, "setBalance", long.class, 7L);
+            assertEquals(List.of(5L, 7L), trace);
+            assertEquals(true, call(account, "isActive"));
+            assertSame(limits, call(account, "getLimits"));
+            assertEquals(List.of("a"), call(account, "getTags"));
+
+            // updates are batched
+            Consumer<Object> changes = model -> {
+                call(model, "setBalance", long.class, 8L);
+                call(model, "setBalance", long.class, 9L);
+            };
+            call(account, "update", Consumer.class, changes);
+            assertEquals(List.of(5L, 7L, 9L), trace);
+
+            // writes are versioned, and fields are read through pinned views
+            try (var view = cx.pin()) {
+                assertEquals(9L, call(account, "getBalance", PinnedView.class, view));
+                assertEquals("ann", call(account, "getOwner", PinnedView.class, view));
+            }
+            assertEquals(5L, call(account, "getBalance", PinnedView.class, initial));
+            initial.close();
+
+            assertEquals("Account(owner=ann, active=true, balance=9, tags=[a], limits=" + limits + ")",
+                    account.toString());
+            assertThrows(NoSuchFieldException.class, () -> type.getDeclaredField("ignored"));
+            cx.dispose();
+        }
+    }
+
+    @Test
+    void test2() throws Exception {
+        var errors = compile("models.Specs", """
+                package models;
+
+                import reactives4j.core.ReactiveModel;
+
+                class Specs {
+                    @ReactiveModel
+                    interface Shape { }
+
+                    @ReactiveModel
+                    static class Box<T> {
+                        T value;
+                    }
+                }
+                """);
+        assertEquals(List.of(
+                "@ReactiveModel only applies to classes",
+                "@ReactiveModel classes cannot have type parameters"
+        ), errors);
+    }
+
+    @Test
+    void test3() throws Exception {
+        var errors = compile("models.Empty", """
+                package models;
+
+                @reactives4j.core.ReactiveModel
+                public class Empty { }
+                """);
+        assertEquals(List.of(), errors);
+        try (var loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            var cx = Context.create();
+            var model = loader.loadClass("models.EmptyModel").getConstructor(Context.class).newInstance(cx);
+            assertEquals("EmptyModel()", model.toString());
+            cx.dispose();
+        }
+    }
+
+    /**
+     * Compiles the given source with the processor, and returns the error messages.
+     */
+    private List<String> compile(String name, String source) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (var files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            files.setLocation(StandardLocation.CLASS_OUTPUT, List.of(output.toFile()));
+            files.setLocation(StandardLocation.SOURCE_OUTPUT, List.of(output.toFile()));
+            var file = new SimpleJavaFileObject(
+                    URI.create("string:///" + name.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            var options = List.of("-classpath", classPath());
+            var task = compiler.getTask(null, files, diagnostics, options, null, List.of(file));
+            task.setProcessors(List.of(new ReactiveModelProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .toList();
+    }
+
+    /**
+     * Returns the class path of the generated models, which the class path of a launcher may not list.
+     */
+    private static String classPath() {
+        var entries = new ArrayList<String>();
+        entries.add(System.getProperty("java.class.path"));
+        for (var type : List.of(Context.class, NotNull.class)) {
+            try {
+                entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static Object call(Object target, String method) {
+        return invoke(target, method, new Class<?>[0]);
+    }
+
+    private static Object call(Object target, String method, Class<?> parameter, Object argument) {
+        return invoke(target, method, new Class<?>[]{parameter}, argument);
+    }
+
+    private static Object invoke(Object target, String method, Class<?>[] parameters, Object... arguments) {
+        try {
+            return target.getClass().getMethod(method, parameters).invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
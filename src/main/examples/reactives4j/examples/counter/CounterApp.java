@@ -5,6 +5,7 @@ import reactives4j.core.Reactive;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.Duration;
 
 public class CounterApp {
 
@@ -36,7 +37,8 @@ public class CounterApp {
     }
 
     public static void main(String[] args) {
-        var cx = Context.create();
+        // long propagation passes are sliced, so the event dispatch thread keeps handling events
+        var cx = Context.create().withFlushBudget(Duration.ofMillis(8), SwingUtilities::invokeLater);
         var app = new CounterApp(cx);
     }
 
@@ -1,9 +1,7 @@
 package reactives4j.core;
 
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
 
@@ -17,22 +15,33 @@ import java.util.function.Function;
  * @param <T> the type of the reactive node, {@link Void} if no type can be specified.
  */
 @Log4j2
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
 abstract class BaseNode<T> implements Handle {
 
+    private static final NodeType[] Types = NodeType.values();
+
+    private static final NodeStatus[] Statuses = NodeStatus.values();
+
+    private static final int TypeMask = 0x7;
+
+    private static final int StatusShift = 3;
+
+    private static final int StatusMask = 0x3 << StatusShift;
+
     /**
-     * Context associated with the current node.
+     * Flag set once the node is disposed.
      */
-    @Getter(AccessLevel.PUBLIC)
-    private final Context context;
+    static final int Disposed = 1 << 5;
 
     /**
-     * Node type (reactive, trigger, memo, effect, watch)
-     *
-     * @see NodeType
+     * Flag set once the node is evicted from its memo family, after which it cannot be read.
+     */
+    static final int Evicted = 1 << 6;
+
+    /**
+     * Context associated with the current node.
      */
     @Getter(AccessLevel.PUBLIC)
-    private final NodeType type;
+    private final Context context;
 
     /**
      * Node state that holds the value and specifies the behavior of the node.
@@ -41,20 +50,58 @@ abstract class BaseNode<T> implements Handle {
     private final BaseState<T> state;
 
     /**
-     * Node clean status (clean, check, dirty, marked)
+     * Node type (reactive, trigger, memo, effect, watch), clean status (clean, check, dirty, marked) and flags,
+     * packed as {@code flags | status << 3 | type}.
      *
+     * @see NodeType
      * @see NodeStatus
      */
-    @Getter(AccessLevel.PROTECTED)
-    @Setter(AccessLevel.PROTECTED)
-    private NodeStatus status;
+    private int bits;
+
+    /**
+     * Position of the node in the frozen schedule of its runtime, or -1 if the runtime is not frozen.
+     *
+     * @see FrozenGraph
+     */
+    int slot = -1;
+
+    /**
+     * Id of the node, assigned in creation order by its runtime, or -1 if the node is not registered.
+     */
+    long id = -1;
+
+    protected BaseNode(Context context, NodeType type, BaseState<T> state, NodeStatus status) {
+        this.context = context;
+        this.state = state;
+        bits = type.ordinal() | status.ordinal() << StatusShift;
+    }
+
+    public NodeType getType() {
+        return Types[bits & TypeMask];
+    }
+
+    protected NodeStatus getStatus() {
+        return Statuses[(bits & StatusMask) >>> StatusShift];
+    }
+
+    protected void setStatus(NodeStatus status) {
+        bits = bits & ~StatusMask | status.ordinal() << StatusShift;
+    }
+
+    boolean hasFlag(int flag) {
+        return (bits & flag) != 0;
+    }
+
+    void setFlag(int flag) {
+        bits |= flag;
+    }
 
     /**
      * Check node type
      *
      * @see NodeType
      */
-    public boolean isType(NodeType type) { return this.type == type; }
+    public boolean isType(NodeType type) { return (bits & TypeMask) == type.ordinal(); }
 
     public boolean isReactive() { return isType(NodeType.Reactive); }
 
@@ -66,6 +113,14 @@ abstract class BaseNode<T> implements Handle {
 
     public boolean isWatch() { return isType(NodeType.Watch); }
 
+    /**
+     * Returns the id of the node, assigned in creation order, or -1 if the node was disposed.
+     * Ids identify nodes in snapshots, journals and change feeds.
+     */
+    public long getId() {
+        return id;
+    }
+
     /**
      * Dispose node
      */
@@ -75,21 +130,21 @@ abstract class BaseNode<T> implements Handle {
         });
     }
 
-    boolean isCheck() { return status == NodeStatus.Check; }
+    boolean isCheck() { return (bits & StatusMask) == NodeStatus.Check.ordinal() << StatusShift; }
 
-    boolean isDirty() { return status == NodeStatus.Dirty; }
+    boolean isDirty() { return (bits & StatusMask) == NodeStatus.Dirty.ordinal() << StatusShift; }
 
-    boolean isMarked() { return status == NodeStatus.Marked; }
+    boolean isMarked() { return (bits & StatusMask) == NodeStatus.Marked.ordinal() << StatusShift; }
 
-    boolean isDirtyOrMarked() { return status == NodeStatus.Dirty || status == NodeStatus.Marked; }
+    boolean isDirtyOrMarked() { return isDirty() || isMarked(); }
 
-    void setClean() { status = NodeStatus.Clean; }
+    void setClean() { setStatus(NodeStatus.Clean); }
 
-    void setCheck() { status = NodeStatus.Check; }
+    void setCheck() { setStatus(NodeStatus.Check); }
 
-    void setDirty() { status = NodeStatus.Dirty; }
+    void setDirty() { setStatus(NodeStatus.Dirty); }
 
-    void setMarked() { status = NodeStatus.Marked; }
+    void setMarked() { setStatus(NodeStatus.Marked); }
 
     T getValue() {
         return state.getValue();
@@ -104,6 +159,11 @@ abstract class BaseNode<T> implements Handle {
     }
 
     T getNode() {
+        if (context.isSynced()) {
+            // synced contexts run on the calling thread, so the runtime is called directly
+            track(context.getRuntime());
+            return state.getValue();
+        }
         context.warnBlocking("get()", "getAsync()");
         return context.with(runtime -> {
             track(runtime);
@@ -112,8 +172,18 @@ abstract class BaseNode<T> implements Handle {
     }
 
     void setNode(T newValue) {
+        if (context.isSynced()) {
+            var runtime = context.getRuntime();
+            runtime.checkWrite();
+            state.setValue(newValue);
+            runtime.commitWrite(this);
+            trigger(runtime);
+            return;
+        }
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.setValue(newValue);
+            runtime.commitWrite(this);
             trigger(runtime);
         });
     }
@@ -135,7 +205,10 @@ abstract class BaseNode<T> implements Handle {
 
     void setNodeUntracked(T newValue) {
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.setValue(newValue);
+            runtime.commitWrite(this);
+            runtime.publishChanges();
         });
     }
 
@@ -178,27 +251,37 @@ abstract class BaseNode<T> implements Handle {
 
     void updateNode(Function<T, T> updater) {
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.updateValue(updater);
+            runtime.commitWrite(this);
             trigger(runtime);
         });
     }
 
     void updateNodeUntracked(Function<T, T> updater) {
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.updateValue(updater);
+            runtime.commitWrite(this);
+            runtime.publishChanges();
         });
     }
 
     void modifyNode(Consumer<T> action) {
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.modifyValue(action);
+            runtime.commitWrite(this);
             trigger(runtime);
         });
     }
 
     void modifyNodeUntracked(Consumer<T> action) {
         context.doWith(runtime -> {
+            runtime.checkWrite();
             state.modifyValue(action);
+            runtime.commitWrite(this);
+            runtime.publishChanges();
         });
     }
 
@@ -209,12 +292,13 @@ abstract class BaseNode<T> implements Handle {
 
     void trigger(@NotNull Runtime runtime) {
         runtime.markDirty(this);
-        runtime.runEffects();
+        if (!runtime.isBatching())
+            runtime.runEffects();
     }
 
     @Override
     public String toString() {
-        return String.format("Node(context=%s, type=%s, state=%s, status=%s)", context, type, state, status);
+        return String.format("Node(context=%s, type=%s, state=%s, status=%s)", context, getType(), state, getStatus());
     }
 
 }
@@ -1,10 +1,12 @@
 package reactives4j.core;
 
 import org.jetbrains.annotations.NotNull;
+import reactives4j.maybe.Maybe;
 import reactives4j.util.ReactiveUtil;
 
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 abstract class BaseState<T> {
 
@@ -50,6 +52,68 @@ abstract class BaseState<T> {
         return false;
     }
 
+    /**
+     * Returns true if the node should drop its sources and value once it has no subscribers left.
+     */
+    boolean isReleasable() {
+        return false;
+    }
+
+    /**
+     * Drops the value of the node. The node is re-evaluated on the next read.
+     */
+    void release() { }
+
+    /**
+     * Returns true if the node is a side effect free computation that is safe to evaluate on another thread.
+     */
+    boolean isPure() {
+        return false;
+    }
+
+    /**
+     * Returns true if the value can be written through {@link #setValue(Object)}, such as by a journal replay.
+     */
+    boolean isWritable() {
+        return false;
+    }
+
+    /**
+     * Returns the value to store in a snapshot, or nothing if the node holds no value worth restoring.
+     */
+    Maybe<T> snapshotValue() {
+        return Maybe.nothing();
+    }
+
+    /**
+     * Called after every write of the value, with the runtime clock of the write.
+     */
+    void committed(long version) { }
+
+    /**
+     * Returns the held value without loading, recomputing or tracking it, or null if there is none.
+     */
+    T peekValue() {
+        return null;
+    }
+
+    /**
+     * Restores a value from a snapshot. The loader is only called on the first read of the value.
+     */
+    void restore(@NotNull Supplier<T> loader) {
+        panicBadType();
+    }
+
+    /**
+     * Loads the value restored from a snapshot, if it was not read yet.
+     */
+    void load() { }
+
+    /**
+     * Frees the resources held by the state once the node is disposed.
+     */
+    void dispose() { }
+
     boolean run(@NotNull Runtime runtime, @NotNull BaseNode<T> node) {
         return true;
     }
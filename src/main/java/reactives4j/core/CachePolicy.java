@@ -0,0 +1,31 @@
+package reactives4j.core;
+
+/**
+ * Retention policy of the cached value of a memo.
+ *
+ * @see Context#memo(java.util.function.Supplier, CachePolicy)
+ */
+public enum CachePolicy {
+    /**
+     * The memo keeps its sources and its cached value for its whole lifetime.
+     */
+    Retain,
+    /**
+     * The memo is only evaluated while observed. Once its last subscriber is gone,
+     * it drops its sources and its cached value, and it is re-evaluated on the next read.
+     */
+    Cold,
+    /**
+     * The cached value is held softly, and may be discarded by the garbage collector under heap pressure.
+     * The sources of the memo stay intact, and a discarded value is recomputed on the next read.
+     */
+    Soft,
+    /**
+     * The cached value counts against the memo budget of the runtime, and the least recently used values
+     * are discarded once the budget is exceeded. The sources of the memo stay intact,
+     * and a discarded value is recomputed on the next read.
+     *
+     * @see Context#withMemoBudget(long)
+     */
+    Weighted
+}
@@ -0,0 +1,11 @@
+package reactives4j.core;
+
+/**
+ * Point-in-time cache counters of a memo.
+ *
+ * @param policy     retention policy of the memo
+ * @param evictions  number of times the cached value was dropped to free memory
+ * @param recomputes number of times an evicted value was recomputed on read
+ * @see Memo#getStats()
+ */
+public record CacheStats(CachePolicy policy, long evictions, long recomputes) { }
@@ -0,0 +1,232 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring buffer of the committed changes of a reactive graph, read by consumer threads off the runtime thread.
+ * <p> The runtime thread is the single producer. Writes of reactive values and memo updates that changed a value
+ * are claimed into preallocated slots as they happen, and published together at the end of the propagation pass,
+ * so consumers observe whole passes. Each entry holds the id of the node, the runtime clock of the change,
+ * and a reference to the new value. </p>
+ * <p> Every consumer reads the ring at its own pace through a {@link Cursor}, with no lock and no allocation per entry.
+ * The producer never overwrites an entry that a consumer has not read yet: once the ring is full,
+ * the runtime thread waits for the slowest consumer, which throttles the graph to the pace of its consumers. </p>
+ *
+ * @see Context#withChangeFeed(int)
+ */
+public class ChangeFeed {
+
+    private static final VarHandle Published;
+
+    private static final VarHandle Sequence;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            Published = lookup.findVarHandle(ChangeFeed.class, "published", long.class);
+            Sequence = lookup.findVarHandle(Cursor.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Getter(AccessLevel.PUBLIC)
+    private final int capacity;
+
+    private final int mask;
+
+    private final long[] ids;
+
+    private final long[] versions;
+
+    private final Object[] values;
+
+    /**
+     * Sequence of the last published entry, read by the consumers.
+     */
+    @SuppressWarnings("unused")
+    private volatile long published = -1;
+
+    /**
+     * Sequence of the last claimed entry. Only touched on the runtime thread.
+     */
+    private long claimed = -1;
+
+    /**
+     * Lowest consumer sequence seen by the producer, so the consumers are only scanned when the ring looks full.
+     */
+    private long gate = -1;
+
+    /**
+     * Cursors the gate was computed from. The producer scans the cursors again once they changed.
+     */
+    private Cursor[] gated = new Cursor[0];
+
+    private volatile Cursor[] cursors = new Cursor[0];
+
+    ChangeFeed(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+            ReactiveUtil.panic("Capacity of a change feed must be a positive power of two");
+        this.capacity = capacity;
+        mask = capacity - 1;
+        ids = new long[capacity];
+        versions = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Creates a cursor that reads the entries published from now on.
+     */
+    public synchronized @NotNull Cursor subscribe() {
+        // the cursor gates the producer before it starts from the current sequence,
+        // so no entry after its starting point can be overwritten before the producer sees it
+        var cursor = new Cursor((long) Published.getAcquire(this));
+        var current = cursors;
+        var updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = cursor;
+        cursors = updated;
+        Sequence.setRelease(cursor, (long) Published.getAcquire(this));
+        return cursor;
+    }
+
+    /**
+     * Returns the sequence of the last published entry.
+     */
+    public long getPublished() {
+        return (long) Published.getAcquire(this);
+    }
+
+    /**
+     * Claims the next slot for a change. Called on the runtime thread.
+     */
+    void claim(long id, long version, Object value) {
+        var next = claimed + 1;
+        // a pass larger than the ring is published in parts, since consumers only read published entries
+        if (next - getPublished() > capacity) publish();
+        awaitSlot(next);
+        var index = (int) (next & mask);
+        ids[index] = id;
+        versions[index] = version;
+        values[index] = value;
+        claimed = next;
+    }
+
+    /**
+     * Publishes the claimed entries to the consumers. Called on the runtime thread.
+     */
+    void publish() {
+        if (claimed != published)
+            Published.setRelease(this, claimed);
+    }
+
+    /**
+     * Waits until no consumer still has to read the entry stored in the slot of the given sequence.
+     */
+    private void awaitSlot(long sequence) {
+        var wrapPoint = sequence - capacity;
+        if (wrapPoint <= gate && gated == cursors) return;
+        long minimum;
+        while (wrapPoint > (minimum = minimumSequence(sequence))) {
+            LockSupport.parkNanos(1_000);
+        }
+        gate = minimum;
+    }
+
+    private long minimumSequence(long sequence) {
+        gated = cursors;
+        var minimum = sequence;
+        for (var cursor : gated) {
+            minimum = Math.min(minimum, (long) Sequence.getAcquire(cursor));
+        }
+        return minimum;
+    }
+
+    private synchronized void unsubscribe(Cursor cursor) {
+        var current = cursors;
+        var index = Arrays.asList(current).indexOf(cursor);
+        if (index < 0) return;
+        var updated = new Cursor[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        cursors = updated;
+    }
+
+    /**
+     * Reading position of a single consumer thread in the feed.
+     */
+    public final class Cursor implements AutoCloseable {
+
+        /**
+         * Sequence of the last entry read by the consumer, read by the producer.
+         */
+        @SuppressWarnings("unused")
+        private volatile long sequence;
+
+        private Cursor(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * Passes the available entries to the handler, and returns the number of entries read.
+         * Slots are released to the producer once the handler returns.
+         */
+        public int poll(@NotNull Handler handler) {
+            return poll(handler, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Passes up to {@code limit} available entries to the handler, and returns the number of entries read.
+         */
+        public int poll(@NotNull Handler handler, int limit) {
+            var current = (long) Sequence.getOpaque(this);
+            var end = Math.min(getPublished(), current + limit);
+            if (end <= current) return 0;
+            for (var sequence = current + 1; sequence <= end; sequence++) {
+                var index = (int) (sequence & mask);
+                handler.onChange(ids[index], versions[index], values[index]);
+            }
+            Sequence.setRelease(this, end);
+            return (int) (end - current);
+        }
+
+        /**
+         * Returns the number of published entries not read yet.
+         */
+        public long lag() {
+            return getPublished() - (long) Sequence.getOpaque(this);
+        }
+
+        /**
+         * Stops gating the producer on this cursor.
+         */
+        @Override
+        public void close() {
+            unsubscribe(this);
+        }
+
+    }
+
+    /**
+     * Receiver of the entries of a feed, called on the consumer thread.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param nodeId  id of the changed node, in creation order
+         * @param version runtime clock of the change
+         * @param value   new value of the node
+         */
+        void onChange(long nodeId, long version, Object value);
+
+    }
+
+}
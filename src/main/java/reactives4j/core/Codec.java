@@ -0,0 +1,71 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary codec of node values, used by graph snapshots.
+ * <p> A codec is picked by the class of the value when a snapshot is written,
+ * and by its name when the snapshot is restored, so the name must stay stable across releases. </p>
+ *
+ * @param <T> type of the values
+ * @see Context#withCodec(Codec)
+ */
+public interface Codec<T> {
+
+    /**
+     * Returns the class of the values handled by the codec.
+     */
+    @NotNull Class<T> type();
+
+    /**
+     * Returns the name identifying the codec in snapshot files, by default the name of its value class.
+     */
+    default @NotNull String name() {
+        return type().getName();
+    }
+
+    void encode(@NotNull T value, @NotNull DataOutput out) throws IOException;
+
+    @NotNull T decode(@NotNull DataInput in) throws IOException;
+
+    /**
+     * Creates a codec from the given functions.
+     */
+    static <T> @NotNull Codec<T> of(@NotNull Class<T> type, @NotNull Encoder<T> encoder, @NotNull Decoder<T> decoder) {
+        return new Codec<>() {
+            @Override
+            public @NotNull Class<T> type() {
+                return type;
+            }
+
+            @Override
+            public void encode(@NotNull T value, @NotNull DataOutput out) throws IOException {
+                encoder.encode(value, out);
+            }
+
+            @Override
+            public @NotNull T decode(@NotNull DataInput in) throws IOException {
+                return decoder.decode(in);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Encoder<T> {
+
+        void encode(T value, DataOutput out) throws IOException;
+
+    }
+
+    @FunctionalInterface
+    interface Decoder<T> {
+
+        T decode(DataInput in) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package reactives4j.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codecs of a runtime, looked up by value class when writing a snapshot and by name when restoring one.
+ * Codecs of strings, booleans and boxed numbers are registered by default.
+ */
+class CodecRegistry {
+
+    private final Map<Class<?>, Codec<?>> byType = new HashMap<>();
+
+    private final Map<String, Codec<?>> byName = new HashMap<>();
+
+    CodecRegistry() {
+        register(Codec.of(String.class, CodecRegistry::writeString, CodecRegistry::readString));
+        register(Codec.of(Boolean.class, (value, out) -> out.writeBoolean(value), DataInput::readBoolean));
+        register(Codec.of(Integer.class, (value, out) -> out.writeInt(value), DataInput::readInt));
+        register(Codec.of(Long.class, (value, out) -> out.writeLong(value), DataInput::readLong));
+        register(Codec.of(Double.class, (value, out) -> out.writeDouble(value), DataInput::readDouble));
+        register(Codec.of(Float.class, (value, out) -> out.writeFloat(value), DataInput::readFloat));
+    }
+
+    void register(Codec<?> codec) {
+        byType.put(codec.type(), codec);
+        byName.put(codec.name(), codec);
+    }
+
+    /**
+     * Returns the codec of the exact class of the value, or null if the value cannot be stored.
+     */
+    Codec<?> forValue(Object value) {
+        return byType.get(value.getClass());
+    }
+
+    Codec<?> forName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Writes a string as length-prefixed UTF-8, since {@link DataOutput#writeUTF} is limited to 64 KB.
+     */
+    private static void writeString(String value, DataOutput out) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -7,11 +7,21 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reactives4j.util.ReactiveUtil;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @Log4j2
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -20,7 +30,7 @@ public class Context {
     /**
      * Counter used to generate unique names for contexts.
      */
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
 
     /**
      * Runtime associated with the current context.
@@ -46,9 +56,8 @@ public class Context {
     private ServiceType serviceType = ServiceType.Synced;
 
     /**
-     * Thread associated with the current context.
+     * Thread associated with the current context. Contexts pinned to an event loop use the thread of their loop instead.
      */
-    @Getter(AccessLevel.PUBLIC)
     @Setter(AccessLevel.PUBLIC)
     private Thread thread;
 
@@ -57,22 +66,31 @@ public class Context {
      */
     private ExecutorService service;
 
+    /**
+     * Policy deciding when the writes of submitted tasks are propagated.
+     */
+    @Getter(AccessLevel.PUBLIC)
+    private volatile FlushPolicy flushPolicy = FlushPolicy.Immediate;
+
+    /**
+     * Shared timer driving the time-based nodes of the current context, created on first use.
+     */
+    private Scheduler scheduler;
+
     /**
      * Creates a new context and initializes it.
      * The context is automatically destroyed when the runtime is disposed.
      *
      * @return a new context
      */
-    @Synchronized
     @Contract("-> new")
     public static @NotNull Context create() {
         var context = new Context();
-        context.name = "" + counter++;
+        context.name = String.valueOf(counter.getAndIncrement());
         context.logDebug("Creating a new reactive context.");
         return context;
     }
 
-    @Synchronized
     @Contract("_ -> new")
     public static @NotNull Context create(String name) {
         var context = create();
@@ -110,6 +128,21 @@ public class Context {
         return this;
     }
 
+    /**
+     * Pins the runtime service to one of the loops of the given group, shared with other contexts.
+     * Tasks of the context run one at a time, in submission order, on the thread of its loop.
+     * Disposing the context releases its place on the loop, without stopping the loop.
+     *
+     * @see EventLoopGroup
+     */
+    public Context withEventLoop(@NotNull EventLoopGroup group) {
+        serviceType = ServiceType.Loop;
+        var loopService = group.assign(this);
+        service = loopService;
+        active = true;
+        return this;
+    }
+
     /**
      * Creates a runtime service with the provided executor service.
      *
@@ -123,10 +156,199 @@ public class Context {
         return this;
     }
 
+    /**
+     * Sets when the writes of the tasks submitted to the runtime service are propagated.
+     * Deferring the propagation to the end of a task, or of a queue drain, runs the effects of a subgraph once
+     * for all the writes of the tasks, instead of once per write. Memos read by a task stay up to date,
+     * since they are evaluated on read.
+     *
+     * @see FlushPolicy
+     */
+    public Context withFlushPolicy(@NotNull FlushPolicy policy) {
+        flushPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Limits the time spent by a propagation pass on the runtime thread.
+     * Once the budget is spent, the pass stops between two subscribers, and the remaining subscribers are
+     * updated by a new pass submitted to the given executor, so that other tasks, such as UI events,
+     * run in between. Memos are evaluated on read, so each subscriber still sees a consistent state,
+     * including the writes applied between two slices. Frozen graphs are not sliced.
+     *
+     * @param budget   maximum duration of a slice, at least one subscriber is updated per slice
+     * @param executor executor running the next slices on the runtime thread
+     */
+    public Context withFlushBudget(@NotNull Duration budget, @NotNull Executor executor) {
+        if (budget.isNegative() || budget.isZero())
+            ReactiveUtil.panic("Flush budget must be positive");
+        with(runtime -> {
+            runtime.flushBudget = budget.toNanos();
+            runtime.sliceExecutor = executor;
+        });
+        return this;
+    }
+
+    /**
+     * Limits the time spent by a propagation pass, and submits the next slices to the runtime service.
+     *
+     * @see #withFlushBudget(Duration, Executor)
+     */
+    public Context withFlushBudget(@NotNull Duration budget) {
+        if (isSynced())
+            ReactiveUtil.panic("Synced contexts need an executor to run the next slices");
+        return withFlushBudget(budget, this::resume);
+    }
+
+    /**
+     * Registers a codec of node values, used to write and restore snapshots of the current context.
+     * Codecs of strings, booleans and boxed numbers are registered by default.
+     *
+     * @see #snapshot(Path)
+     */
+    public Context withCodec(@NotNull Codec<?> codec) {
+        with(runtime -> {
+            runtime.codecs.register(codec);
+        });
+        return this;
+    }
+
+    /**
+     * Publishes the committed changes of the current context to a ring buffer of the given capacity,
+     * read by consumer threads through their own cursors.
+     *
+     * @param capacity number of slots of the ring, a power of two
+     * @see ChangeFeed
+     */
+    public Context withChangeFeed(int capacity) {
+        var feed = new ChangeFeed(capacity);
+        with(runtime -> {
+            runtime.feed = feed;
+        });
+        return this;
+    }
+
+    /**
+     * Returns the change feed of the current context.
+     *
+     * @see #withChangeFeed(int)
+     */
+    public @NotNull ChangeFeed getChangeFeed() {
+        var feed = runtime.getFeed();
+        if (feed == null)
+            ReactiveUtil.panic("Change feed not enabled");
+        return feed;
+    }
+
+    /**
+     * Journals every write of a reactive value of the current context to the given file, appending to it if it exists.
+     * Records are written by a background thread in groups, and synced according to the given policy.
+     *
+     * @param path   journal file
+     * @param policy durability policy of the journal
+     * @see #syncJournal()
+     * @see #replay(Path, int)
+     */
+    public Context withJournal(@NotNull Path path, @NotNull JournalPolicy policy) {
+        with(runtime -> {
+            if (runtime.journal != null)
+                ReactiveUtil.panic("Journal already enabled");
+            try {
+                runtime.journal = Journal.open(path, policy, runtime.codecs, getDebugName());
+            } catch (IOException e) {
+                ReactiveUtil.panic(e);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Journals every write with a policy syncing batches of up to 256 records, at least every 10 milliseconds.
+     *
+     * @see #withJournal(Path, JournalPolicy)
+     */
+    public Context withJournal(@NotNull Path path) {
+        return withJournal(path, JournalPolicy.batched(256, Duration.ofMillis(10)));
+    }
+
+    /**
+     * Restores a snapshot written by {@link #snapshot(Path)}, so that the graph can be rebuilt without recomputing it.
+     * The snapshot file is memory-mapped, and applied to the nodes as they are created:
+     * reactive values get their stored value, and memos that were clean start clean with their stored value,
+     * subscribed to their stored sources. Values are decoded on first read.
+     * <p> Nodes are matched by creation order, so the graph must be rebuilt by the same code, in the same order,
+     * and the snapshot must be restored before any node is created.
+     * A node whose type differs from the stored one is created as usual. </p>
+     *
+     * @param path snapshot file
+     */
+    public Context restore(@NotNull Path path) {
+        with(runtime -> {
+            if (runtime.getNextId() != 0)
+                ReactiveUtil.panic("Snapshot must be restored before any node is created");
+            try {
+                runtime.snapshot = Snapshot.open(runtime, path);
+            } catch (IOException e) {
+                ReactiveUtil.panic(e);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Sets the memory budget shared by the {@link CachePolicy#Weighted} memos of the current context.
+     * Once the total weight of their cached values exceeds the budget,
+     * the least recently used values are discarded, and recomputed on their next read.
+     *
+     * @param capacity total weight of the cached values
+     * @see #memo(Supplier, ToLongFunction)
+     */
+    public Context withMemoBudget(long capacity) {
+        if (capacity < 0)
+            ReactiveUtil.panic("Memo budget must not be negative");
+        with(runtime -> {
+            runtime.budget = new MemoBudget(capacity);
+        });
+        return this;
+    }
+
+    /**
+     * Enables parallel propagation on the given pool.
+     * Before effects run, independent pure memos that need an update are evaluated concurrently,
+     * level by level in topological order, and their results are committed back on the runtime thread.
+     *
+     * @param pool work-stealing pool evaluating the memos
+     * @see #pureMemo(Supplier)
+     */
+    public Context withParallelPropagation(@NotNull ForkJoinPool pool) {
+        with(runtime -> {
+            runtime.parallel = new ParallelEvaluator(runtime, pool);
+        });
+        return this;
+    }
+
+    /**
+     * Enables parallel propagation on the common pool.
+     *
+     * @see #withParallelPropagation(ForkJoinPool)
+     */
+    public Context withParallelPropagation() {
+        return withParallelPropagation(ForkJoinPool.commonPool());
+    }
+
     public boolean isSynced() {
         return serviceType == ServiceType.Synced;
     }
 
+    /**
+     * Panics if the current context is synced. Synced contexts run tasks on the calling thread,
+     * so tasks submitted by the given threads would update the runtime concurrently with its owner thread.
+     */
+    void checkService(String threads) {
+        if (isSynced())
+            ReactiveUtil.panic("Synced contexts cannot be updated from " + threads + ", use a runtime service");
+    }
+
     /**
      * Give a custom name to the runtime context.
      * This is useful for debugging purposes.
@@ -147,11 +369,23 @@ public class Context {
         return service.isTerminated() || service.isShutdown();
     }
 
+    /**
+     * Returns the thread associated with the current context.
+     * <p> The thread of an event loop is resolved on each call, in case the loop had to replace it. </p>
+     */
+    public Thread getThread() {
+        if (service instanceof LoopService loopService) return loopService.getThread();
+        return thread;
+    }
+
     /**
      * Checks if the current thread is the reactive thread associated with the current context.
      */
     public boolean isReactiveThread() {
-        return Thread.currentThread() == thread;
+        if (Thread.currentThread() == getThread()) return true;
+        // parallel evaluations read on behalf of the runtime thread
+        var parallel = runtime.getParallel();
+        return parallel != null && parallel.isWorkerThread();
     }
 
     /**
@@ -206,6 +440,107 @@ public class Context {
         return Memo.create(this, fx, lazy);
     }
 
+    /**
+     * Takes a getter function and returns a readonly reactive value with the given cache policy.
+     * <p> With {@link CachePolicy#Cold}, the memo is not evaluated until it is read,
+     * and it drops its sources and cached value once its last subscriber is gone,
+     * so an unobserved memo costs nothing during propagation. </p>
+     * <p> With {@link CachePolicy#Soft} or {@link CachePolicy#Weighted}, the cached value may be discarded
+     * to free memory, and is recomputed on the next read while the sources stay intact. </p>
+     *
+     * @param fx     getter function
+     * @param policy retention policy of the cached value
+     * @param <T>    type of the inner value
+     * @return the new memo
+     * @see CachePolicy
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> memo(@NotNull Supplier<T> fx, @NotNull CachePolicy policy) {
+        return Memo.create(this, fx, policy);
+    }
+
+    /**
+     * Takes a side effect free getter function and returns a readonly reactive value.
+     * With parallel propagation enabled, pure memos that do not depend on each other are evaluated concurrently,
+     * so the getter function must be thread-safe, must not write to reactive values,
+     * and should always read the same reactive values.
+     *
+     * @param fx  thread-safe getter function
+     * @param <T> type of the inner value
+     * @return the new memo
+     * @see #withParallelPropagation(ForkJoinPool)
+     */
+    @Contract("_ -> new")
+    public <T> @NotNull Memo<T> pureMemo(@NotNull Supplier<T> fx) {
+        return Memo.createPure(this, fx);
+    }
+
+    /**
+     * Takes a getter function and returns a readonly reactive value,
+     * whose cached value counts against the memo budget of the current context with the given weight.
+     *
+     * @param fx      getter function
+     * @param weigher weight of a value against the budget, such as its approximate size in bytes
+     * @param <T>     type of the inner value
+     * @return the new memo
+     * @see #withMemoBudget(long)
+     * @see CachePolicy#Weighted
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> memo(@NotNull Supplier<T> fx, @NotNull ToLongFunction<T> weigher) {
+        return Memo.create(this, fx, weigher);
+    }
+
+    /**
+     * Returns a keyed family of memos. The memo of a key is created lazily from the getter function
+     * returned by the factory, and shared by all the callers asking for the same key.
+     * Unobserved entries are evicted in least recently used order once the family exceeds its maximum size.
+     *
+     * @param factory     function returning the getter function of a key
+     * @param maximumSize number of entries kept before unobserved entries are evicted
+     * @param <K>         type of the keys
+     * @param <V>         type of the memo values
+     * @return the new memo family
+     * @see MemoFamily
+     */
+    @Contract("_, _ -> new")
+    public <K, V> @NotNull MemoFamily<K, V> memoFamily(@NotNull Function<K, Supplier<V>> factory, int maximumSize) {
+        return new MemoFamily<>(this, factory, maximumSize);
+    }
+
+    /**
+     * Returns a keyed family of memos that keeps up to 1024 entries.
+     *
+     * @see #memoFamily(Function, int)
+     */
+    @Contract("_ -> new")
+    public <K, V> @NotNull MemoFamily<K, V> memoFamily(@NotNull Function<K, Supplier<V>> factory) {
+        return new MemoFamily<>(this, factory, 1024);
+    }
+
+    /**
+     * Creates a new reactive list holding the given elements.
+     * Views derived from the list, such as {@link ListView#map(Function)} or {@link ListView#filter(Predicate)},
+     * are maintained incrementally from the changes of the list.
+     *
+     * @param values initial elements
+     * @param <T>    type of the elements
+     * @return the new list
+     * @see ReactiveList
+     */
+    @Contract("_ -> new")
+    public <T> @NotNull ReactiveList<T> list(@NotNull Collection<? extends T> values) {
+        return ReactiveList.create(this, values);
+    }
+
+    /**
+     * @see #list(Collection)
+     */
+    @Contract("-> new")
+    public <T> @NotNull ReactiveList<T> list() {
+        return ReactiveList.create(this, List.of());
+    }
+
     /**
      * Takes a reactive closure and returns an effect handle.
      * Effects are used to trigger side effects without holding a value.
@@ -385,9 +720,24 @@ public class Context {
      * Sets up a job that runs whenever the reactive value changes.
      * It is similar to {@link #watchEffect(Reactive, BiConsumer)} but it runs asynchronously.
      * The job is not run immediately after creation.
+     * Every change submits a new run, see {@link #watchJob(Reactive, BiConsumer, JobPolicy)} to bound the runs.
      */
-    public <T> @NotNull Handle watchJob(@NotNull Reactive<T> rx, @NotNull BiConsumer<T, T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Reactive<T> rx, @NotNull BiConsumer<T, T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * Sets up a job that runs whenever the reactive value changes, under the given execution policy.
+     * The policy decides whether changes that arrive while a run is in progress are queued,
+     * conflated to the latest value, dropped, or cancel the run in progress.
+     *
+     * @param rx     reactive value
+     * @param fx     job function
+     * @param policy execution policy
+     * @see JobPolicy
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Reactive<T> rx, @NotNull BiConsumer<T, T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -395,8 +745,15 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public <T> @NotNull Handle watchJob(@NotNull Reactive<T> rx, @NotNull Consumer<T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Reactive<T> rx, @NotNull Consumer<T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Reactive<T> rx, @NotNull Consumer<T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -404,8 +761,15 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public @NotNull Handle watchJob(@NotNull Trigger rx, @NotNull Runnable fx) {
-        var watch = new WatchJob<Void>(this);
+    public @NotNull WatchJob<Void> watchJob(@NotNull Trigger rx, @NotNull Runnable fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public @NotNull WatchJob<Void> watchJob(@NotNull Trigger rx, @NotNull Runnable fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<Void>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -413,8 +777,15 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public <T> @NotNull Handle watchJob(@NotNull Memo<T> rx, @NotNull BiConsumer<T, T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Memo<T> rx, @NotNull BiConsumer<T, T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Memo<T> rx, @NotNull BiConsumer<T, T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -422,8 +793,15 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public <T> @NotNull Handle watchJob(@NotNull Memo<T> rx, @NotNull Consumer<T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Memo<T> rx, @NotNull Consumer<T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Memo<T> rx, @NotNull Consumer<T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -431,8 +809,15 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public <T> @NotNull Handle watchJob(@NotNull Resource<T> rx, @NotNull BiConsumer<T, T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Resource<T> rx, @NotNull BiConsumer<T, T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Resource<T> rx, @NotNull BiConsumer<T, T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
@@ -440,12 +825,465 @@ public class Context {
     /**
      * @see #watchJob(Reactive, BiConsumer)
      */
-    public <T> @NotNull Handle watchJob(@NotNull Resource<T> rx, @NotNull Consumer<T> fx) {
-        var watch = new WatchJob<T>(this);
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Resource<T> rx, @NotNull Consumer<T> fx) {
+        return watchJob(rx, fx, JobPolicy.unbounded());
+    }
+
+    /**
+     * @see #watchJob(Reactive, BiConsumer, JobPolicy)
+     */
+    public <T> @NotNull WatchJob<T> watchJob(@NotNull Resource<T> rx, @NotNull Consumer<T> fx, @NotNull JobPolicy policy) {
+        var watch = new WatchJob<T>(this, policy);
         watch.setSource(rx, fx);
         return watch;
     }
 
+    /**
+     * Returns a memo that follows the given reactive value,
+     * but only takes its latest value once the source has been quiet for the given window.
+     * <p> All temporal operators of a context share a single scheduler thread,
+     * and their updates are applied on the runtime thread of the context.
+     * Synced contexts have no runtime thread, so they reject temporal operators and timers. </p>
+     *
+     * @param rx     source reactive value
+     * @param window quiet period after the last change
+     * @param <T>    type of the reactive value
+     * @return the debounced memo
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> debounce(@NotNull Reactive<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Debounce);
+    }
+
+    /**
+     * @see #debounce(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> debounce(@NotNull Memo<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Debounce);
+    }
+
+    /**
+     * Returns a memo that takes the first change of the given reactive value immediately,
+     * and ignores further changes until the given window has passed.
+     *
+     * @see #debounce(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> throttle(@NotNull Reactive<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Throttle);
+    }
+
+    /**
+     * @see #throttle(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> throttle(@NotNull Memo<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Throttle);
+    }
+
+    /**
+     * Returns a memo that takes the latest value of the given reactive value at fixed intervals,
+     * if it changed since the previous interval.
+     * The period must be at least one tick of the timing wheel, that is 5ms.
+     *
+     * @see #debounce(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> sample(@NotNull Reactive<T> rx, @NotNull Duration period) {
+        return TemporalOperator.create(this, rx, period, TemporalOperator.Mode.Sample);
+    }
+
+    /**
+     * @see #sample(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> sample(@NotNull Memo<T> rx, @NotNull Duration period) {
+        return TemporalOperator.create(this, rx, period, TemporalOperator.Mode.Sample);
+    }
+
+    /**
+     * Returns a memo that waits for the given window after a change of the given reactive value,
+     * and then takes its latest value.
+     *
+     * @see #debounce(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> audit(@NotNull Reactive<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Audit);
+    }
+
+    /**
+     * @see #audit(Reactive, Duration)
+     */
+    @Contract("_, _ -> new")
+    public <T> @NotNull Memo<T> audit(@NotNull Memo<T> rx, @NotNull Duration window) {
+        return TemporalOperator.create(this, rx, window, TemporalOperator.Mode.Audit);
+    }
+
+    /**
+     * Returns a memo that counts the periods elapsed since its creation, starting from zero.
+     * <p> Timers of a context share a single hashed timing wheel.
+     * Timers that fire on the same tick are applied as a single batch on the runtime thread.
+     * A periodic timer fires at most once per tick of 5ms, so shorter periods are rejected.
+     * Synced contexts have no runtime thread, so they reject timers. </p>
+     *
+     * @param period period between increments, at least 5ms
+     * @return the interval memo
+     * @see Timeout
+     */
+    @Contract("_ -> new")
+    public @NotNull Memo<Long> interval(@NotNull Duration period) {
+        return TimerSource.interval(this, period);
+    }
+
+    /**
+     * Returns a memo that is false until the given delay has elapsed, and true afterwards.
+     *
+     * @param delay delay before the memo turns true
+     * @return the timeout memo
+     * @see #interval(Duration)
+     */
+    @Contract("_ -> new")
+    public @NotNull Memo<Boolean> timeout(@NotNull Duration delay) {
+        return TimerSource.timeout(this, delay);
+    }
+
+    /**
+     * Writes the values of the reactive values and of the clean memos of the current context to the given file,
+     * along with the sources of the memos. Values without a registered codec are skipped.
+     * The file is replaced atomically. Note that this function is synchronous and will block the current thread until the file is written.
+     *
+     * @param path snapshot file
+     * @see #restore(Path)
+     * @see #withCodec(Codec)
+     */
+    public void snapshot(@NotNull Path path) {
+        with(runtime -> {
+            try {
+                Snapshot.write(runtime, path);
+            } catch (IOException e) {
+                ReactiveUtil.panic(e);
+            }
+        });
+    }
+
+    /**
+     * Blocks until all the writes journaled so far are synced to the storage device.
+     *
+     * @see #withJournal(Path, JournalPolicy)
+     */
+    public void syncJournal() {
+        var journal = with(runtime -> {
+            return runtime.journal;
+        });
+        if (journal == null)
+            ReactiveUtil.panic("Journal not enabled");
+        journal.sync();
+    }
+
+    /**
+     * Replays the writes of a journal into the reactive values of the current context.
+     * Writes are applied in batches of the given size, each batch being propagated once.
+     * Nodes are matched by creation order, so the graph must be built by the same code, in the same order,
+     * as the graph that wrote the journal. Replayed writes are not journaled again.
+     * Note that this function is synchronous and will block the current thread until the journal is replayed.
+     *
+     * @param path      journal file
+     * @param batchSize number of writes propagated together
+     * @return the number of replayed writes
+     */
+    public long replay(@NotNull Path path, int batchSize) {
+        if (batchSize < 1)
+            ReactiveUtil.panic("Batch size of a replay must be positive");
+        return with(runtime -> {
+            var journal = runtime.journal;
+            runtime.journal = null;
+            try {
+                return Journal.replay(runtime, path, batchSize);
+            } catch (IOException e) {
+                ReactiveUtil.panic(e);
+                return 0L;
+            } finally {
+                runtime.journal = journal;
+            }
+        });
+    }
+
+    /**
+     * @see #replay(Path, int)
+     */
+    public long replay(@NotNull Path path) {
+        return replay(path, 1024);
+    }
+
+    /**
+     * Reads several nodes consistently, in a single task of the runtime thread.
+     * All the values read through the view come from the same propagation state,
+     * instead of one blocking round trip per node, each possibly observing a different state.
+     * Note that this function is synchronous and will block the current thread until the reader returns.
+     * For the asynchronous variant, use {@link #readAsync(Function)}.
+     *
+     * @param reader function reading the nodes through the view, which must not escape it
+     * @see ReadView
+     */
+    public <R> R read(@NotNull Function<ReadView, R> reader) {
+        return with(runtime -> {
+            return ReadView.read(runtime, reader);
+        });
+    }
+
+    /**
+     * Reads several nodes consistently, in a single task of the runtime thread, without blocking the current thread.
+     *
+     * @see #read(Function)
+     */
+    public <R> @NotNull CompletionStage<R> readAsync(@NotNull Function<ReadView, R> reader) {
+        var result = new CompletableFuture<R>();
+        doWith(runtime -> {
+            try {
+                result.complete(ReadView.read(runtime, reader));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keeps a chain of versioned values for every reactive value and memo of the current context,
+     * so that other threads can read them through pinned views while writes continue.
+     * Every committed propagation publishes a version, and the memos it marked are brought up to date
+     * before it is published, instead of on their next read. Versions are reclaimed once no view pins them.
+     *
+     * @see #pin()
+     */
+    public Context withVersioning() {
+        with(runtime -> {
+            if (runtime.versions != null) return;
+            runtime.versions = new VersionStore();
+            runtime.versions.seed(runtime);
+        });
+        return this;
+    }
+
+    /**
+     * Pins the latest published version of the current context, without waiting for the runtime thread.
+     * All the values read through the view belong to that version, whatever the writes made since.
+     * The view must be closed once read, so that the runtime can reclaim the versions it pins.
+     *
+     * @see #withVersioning()
+     * @see PinnedView
+     */
+    public @NotNull PinnedView pin() {
+        var versions = runtime.getVersions();
+        if (versions == null)
+            ReactiveUtil.panic("Versioning not enabled");
+        return versions.pin(this);
+    }
+
+    /**
+     * Compiles the current dependency graph into a flat propagation schedule.
+     * While frozen, writes mark their subscribers by following precomputed topological arrays,
+     * subscribers run in topological order, and re-reading known sources costs no tracking.
+     * The context falls back to dynamic tracking as soon as the graph changes,
+     * such as when a node is created or disposed, or when an effect reads a new source or stops reading one.
+     * Note that this function is synchronous and will block the current thread until the graph is compiled.
+     *
+     * @return true if the graph was frozen, false if it has a cycle
+     * @see #thaw()
+     */
+    public boolean freeze() {
+        return with(runtime -> {
+            return runtime.freeze();
+        });
+    }
+
+    /**
+     * Drops the frozen schedule of the current context, and falls back to dynamic tracking.
+     *
+     * @see #freeze()
+     */
+    public void thaw() {
+        with(runtime -> {
+            runtime.thaw();
+        });
+    }
+
+    /**
+     * Returns true if the current context propagates through a frozen schedule.
+     *
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return with(runtime -> {
+            return runtime.getFrozen() != null;
+        });
+    }
+
+    /**
+     * Runs the given function as a single batch.
+     * Writes inside the batch mark their subscribers as usual,
+     * but effects only run once, after the outermost batch ends.
+     * Note that this function is synchronous and will block the current thread until the batch is finished.
+     *
+     * @param fx function performing the writes
+     */
+    public void batch(@NotNull Runnable fx) {
+        with(runtime -> {
+            runtime.batch(fx);
+        });
+    }
+
+    /**
+     * Runs the given function as a single batch of the given lane.
+     * Propagation passes update the pending subscribers lane by lane, most urgent first.
+     * Urgent batches submitted from other threads preempt the background subscribers of the pass in progress,
+     * which are resumed by a task submitted to the runtime service once the urgent batch is propagated.
+     * Note that this function is synchronous and will block the current thread until the batch is finished.
+     *
+     * @param lane priority lane of the writes
+     * @param fx   function performing the writes
+     * @see #getLaneMetrics()
+     */
+    public void batch(@NotNull Lane lane, @NotNull Runnable fx) {
+        var submittedAt = System.nanoTime();
+        var executor = isSynced() ? null : (Executor) this::resume;
+        if (lane != Lane.Urgent || isReactiveThread() || isSynced()) {
+            with(runtime -> {
+                runtime.batch(lane, submittedAt, executor, fx);
+            });
+            return;
+        }
+        var waiting = runtime.lanes.urgentWaiting;
+        var started = new AtomicBoolean();
+        waiting.incrementAndGet();
+        try {
+            with(runtime -> {
+                if (started.compareAndSet(false, true))
+                    waiting.decrementAndGet();
+                runtime.batch(lane, submittedAt, executor, fx);
+            });
+        } finally {
+            // the batch was rejected, or the current thread stopped waiting for it
+            if (started.compareAndSet(false, true))
+                waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the latency counters of each priority lane, in priority order.
+     * Lanes are only tracked once a lane batch has run.
+     *
+     * @see #batch(Lane, Runnable)
+     */
+    public @NotNull List<LaneMetrics> getLaneMetrics() {
+        return with(runtime -> {
+            return runtime.lanes.metrics(runtime.pending.size());
+        });
+    }
+
+    /**
+     * Returns a publisher of the changes of the given reactive value.
+     * <p> Each subscriber first receives the current value, and then the values of later changes.
+     * Values are emitted off the runtime thread and only as far as the subscriber requested them.
+     * A subscriber that falls behind receives the latest value instead of every intermediate one,
+     * so a slow subscriber never stalls propagation. Null values are skipped. </p>
+     * <p> Subscriptions complete when the reactive value is disposed. </p>
+     *
+     * @param rx       reactive value
+     * @param executor executor used to emit values to the subscribers
+     * @param <T>      type of the reactive value
+     * @return the publisher
+     * @see Flow.Publisher
+     */
+    @Contract("_, _ -> new")
+    public <T> Flow.@NotNull Publisher<T> publisher(@NotNull Reactive<T> rx, @NotNull Executor executor) {
+        return new NodePublisher<>(this, rx, executor);
+    }
+
+    /**
+     * Returns a publisher of the changes of the given reactive value,
+     * emitting values on the common fork-join pool.
+     *
+     * @see #publisher(Reactive, Executor)
+     */
+    @Contract("_ -> new")
+    public <T> Flow.@NotNull Publisher<T> publisher(@NotNull Reactive<T> rx) {
+        return new NodePublisher<>(this, rx, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @see #publisher(Reactive, Executor)
+     */
+    @Contract("_, _ -> new")
+    public <T> Flow.@NotNull Publisher<T> publisher(@NotNull Memo<T> rx, @NotNull Executor executor) {
+        return new NodePublisher<>(this, rx, executor);
+    }
+
+    /**
+     * @see #publisher(Reactive)
+     */
+    @Contract("_ -> new")
+    public <T> Flow.@NotNull Publisher<T> publisher(@NotNull Memo<T> rx) {
+        return new NodePublisher<>(this, rx, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Subscribes to the given publisher and feeds its elements into a reactive value.
+     * <p> Elements are requested in batches of the given size, and folded with the given reducer
+     * until the next runtime turn, where the folded result is applied to the reactive value in a single update.
+     * The reducer takes the accumulated value first, and must be associative.
+     * Synced contexts have no runtime thread to apply the elements on, so they reject subscribers. </p>
+     *
+     * @param publisher    source publisher
+     * @param initialValue initial value of the reactive value
+     * @param batchSize    number of elements requested at once
+     * @param reducer      function folding an element into the accumulated value
+     * @param <T>          type of the elements
+     * @return the subscriber, holding the reactive value
+     * @see ReactiveSubscriber
+     */
+    public <T> @NotNull ReactiveSubscriber<T> fromPublisher(
+            Flow.@NotNull Publisher<? extends T> publisher,
+            T initialValue,
+            int batchSize,
+            @NotNull BinaryOperator<T> reducer
+    ) {
+        var subscriber = new ReactiveSubscriber<>(this, initialValue, batchSize, reducer);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Subscribes to the given publisher and keeps the latest element in a reactive value.
+     *
+     * @see #fromPublisher(Flow.Publisher, Object, int, BinaryOperator)
+     */
+    public <T> @NotNull ReactiveSubscriber<T> fromPublisher(Flow.@NotNull Publisher<? extends T> publisher, T initialValue) {
+        return fromPublisher(publisher, initialValue, 256, (current, latest) -> latest);
+    }
+
+    /**
+     * Returns a sink that feeds the elements offered by producer threads into a reactive value.
+     * Elements are folded with the given reducer until the next runtime turn.
+     *
+     * @see ReactiveSubscriber#offer(Object)
+     * @see #fromPublisher(Flow.Publisher, Object, int, BinaryOperator)
+     */
+    public <T> @NotNull ReactiveSubscriber<T> sink(T initialValue, @NotNull BinaryOperator<T> reducer) {
+        return new ReactiveSubscriber<>(this, initialValue, 1, reducer);
+    }
+
+    /**
+     * Returns a sink that keeps the latest element offered by producer threads in a reactive value.
+     *
+     * @see #sink(Object, BinaryOperator)
+     */
+    public <T> @NotNull ReactiveSubscriber<T> sink(T initialValue) {
+        return sink(initialValue, (current, latest) -> latest);
+    }
+
     /**
      * Submits an asynchronous task that runs on its own thread.
      * Returns a future that can be used to retrieve the result of the computation.
@@ -469,6 +1307,17 @@ public class Context {
         return TaskContext.getContext().submitTask(fx);
     }
 
+    /**
+     * Returns the shared scheduler of the current context, creating it on first use.
+     */
+    @Synchronized
+    @NotNull Scheduler getScheduler() {
+        checkService("timer threads");
+        if (scheduler == null)
+            scheduler = new Scheduler(this);
+        return scheduler;
+    }
+
     /**
      * Initiates an orderly shutdown in which previously submitted tasks are executed,
      * but no new tasks will be accepted. Invocation has no additional effect if already shut down.
@@ -504,12 +1353,27 @@ public class Context {
         logWarn("Runtime service was shutdown abruptly. Scheduled tasks were not executed.");
     }
 
+    /**
+     * Submits a task resuming a propagation pass on the runtime thread.
+     */
+    private void resume(Runnable task) {
+        submitWith(runtime -> {
+            task.run();
+        });
+    }
+
     /**
      * Takes a runtime and a task, and returns a future that can be used to check task completion.
      */
     @NotNull Future<Void> submit(@NotNull Runtime runtime, @NotNull Consumer<Runtime> f) {
         checkStatus();
-        return service.submit(() -> f.accept(runtime), null);
+        var policy = flushPolicy;
+        if (policy == FlushPolicy.Immediate)
+            return service.submit(() -> f.accept(runtime), null);
+        return service.submit(() -> runtime.runTask(policy, service, () -> {
+            f.accept(runtime);
+            return null;
+        }), null);
     }
 
     /**
@@ -517,7 +1381,10 @@ public class Context {
      */
     <T> @NotNull Future<T> submit(@NotNull Runtime runtime, @NotNull Function<Runtime, T> f) {
         checkStatus();
-        return service.submit(() -> f.apply(runtime));
+        var policy = flushPolicy;
+        if (policy == FlushPolicy.Immediate)
+            return service.submit(() -> f.apply(runtime));
+        return service.submit(() -> runtime.runTask(policy, service, () -> f.apply(runtime)));
     }
 
     /**
@@ -609,6 +1476,10 @@ public class Context {
     public void dispose() {
         if (!isSynced())
             shutdown();
+        if (scheduler != null)
+            scheduler.shutdown();
+        if (runtime.journal != null)
+            runtime.journal.close();
         runtime.disposeRuntime();
         active = false;
     }
@@ -620,6 +1491,10 @@ public class Context {
     public void disposeNow() {
         if (!isSynced())
             shutdownNow();
+        if (scheduler != null)
+            scheduler.shutdown();
+        if (runtime.journal != null)
+            runtime.journal.close();
         runtime.disposeRuntime();
         active = false;
     }
@@ -664,6 +1539,7 @@ public class Context {
     }
 
     void logDebug(String message) {
+        if (!log.isDebugEnabled()) return;
         log.debug(String.format("%s: %s", getDebugName(), message));
     }
 
@@ -680,6 +1556,7 @@ public class Context {
         Synced,
         Dedicated,
         Virtual,
+        Loop,
         Provided
     }
 
@@ -22,8 +22,15 @@ class EffectState extends BaseState<Void> {
 
     @Override
     boolean run(@NotNull Runtime runtime, @NotNull BaseNode<Void> node) {
-        runtime.cleanupSources(node);
-        function.run();
+        if (!runtime.cleanupSources(node)) {
+            function.run();
+            return true;
+        }
+        try {
+            function.run();
+        } finally {
+            runtime.endRerun(node);
+        }
         return true;
     }
 
@@ -0,0 +1,126 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group of runtime threads shared by many contexts.
+ * <p> Each context served by the group is pinned to a single loop for its whole life,
+ * so its tasks keep running one at a time and in submission order, while a few threads serve
+ * any number of contexts. Contexts are assigned to the loops in turn. </p>
+ * <p> Tasks of different contexts pinned to the same loop never run concurrently. A context may therefore call
+ * another context of its loop synchronously, the call then runs inline on the loop thread. </p>
+ *
+ * @see Context#withEventLoop(EventLoopGroup)
+ */
+public final class EventLoopGroup implements AutoCloseable {
+
+    private static final AtomicInteger groups = new AtomicInteger();
+
+    private final Loop[] loops;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private EventLoopGroup(int size) {
+        if (size < 1)
+            ReactiveUtil.panic("An event loop group needs at least one loop");
+        var group = groups.getAndIncrement();
+        loops = new Loop[size];
+        for (int i = 0; i < size; i++) {
+            loops[i] = new Loop(i, "reactives4j-loop-" + group + "-" + i);
+        }
+    }
+
+    /**
+     * Creates a group of the given number of loops, each running on its own platform thread.
+     */
+    @Contract("_ -> new")
+    public static @NotNull EventLoopGroup create(int size) {
+        return new EventLoopGroup(size);
+    }
+
+    /**
+     * Creates a group of one loop per available processor.
+     */
+    @Contract("-> new")
+    public static @NotNull EventLoopGroup create() {
+        return create(java.lang.Runtime.getRuntime().availableProcessors());
+    }
+
+    public int size() {
+        return loops.length;
+    }
+
+    /**
+     * Returns the counters of every loop of the group, showing how contexts are distributed over the loops.
+     */
+    public @NotNull List<LoopMetrics> getMetrics() {
+        var metrics = new ArrayList<LoopMetrics>(loops.length);
+        for (var loop : loops) {
+            metrics.add(new LoopMetrics(
+                    loop.index,
+                    loop.contexts.get(),
+                    loop.executor.getCompletedTaskCount(),
+                    loop.executor.getQueue().size()
+            ));
+        }
+        return metrics;
+    }
+
+    /**
+     * Stops the loops once the tasks already submitted have run. Contexts still pinned to the group stop accepting tasks.
+     */
+    @Override
+    public void close() {
+        for (var loop : loops) {
+            loop.executor.shutdown();
+        }
+    }
+
+    /**
+     * Pins a new context to the next loop.
+     */
+    LoopService assign(Context context) {
+        var loop = loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+        loop.contexts.incrementAndGet();
+        return new LoopService(loop, context);
+    }
+
+    /**
+     * Single runtime thread of the group.
+     */
+    static final class Loop {
+
+        final int index;
+
+        final ThreadPoolExecutor executor;
+
+        final AtomicInteger contexts = new AtomicInteger();
+
+        /**
+         * Thread of the loop, started with the loop so that contexts can be pinned to it right away.
+         */
+        volatile Thread thread;
+
+        private Loop(int index, String name) {
+            this.index = index;
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                var created = new Thread(r, name);
+                created.setDaemon(true);
+                thread = created;
+                return created;
+            });
+            executor.prestartCoreThread();
+        }
+
+    }
+
+}
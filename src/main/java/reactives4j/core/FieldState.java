@@ -0,0 +1,52 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+import reactives4j.maybe.Maybe;
+
+/**
+ * State of the node slot of a field of a reactive model. The value is held by the model itself,
+ * and exposed to the journal, the change feed and the versions as the value of the slot.
+ */
+final class FieldState extends BaseState<Object> {
+
+    private final ReactiveObject model;
+
+    private final int field;
+
+    FieldState(ReactiveObject model, int field) {
+        this.model = model;
+        this.field = field;
+    }
+
+    @Override
+    Object getValue() {
+        return model.readField(field);
+    }
+
+    @Override
+    void setValue(@NotNull Object newValue) {
+        model.writeField(field, newValue);
+    }
+
+    @Override
+    boolean isWritable() {
+        return true;
+    }
+
+    @Override
+    Maybe<Object> snapshotValue() {
+        var value = model.readField(field);
+        return value == null ? Maybe.nothing() : Maybe.just(value);
+    }
+
+    @Override
+    Object peekValue() {
+        return model.readField(field);
+    }
+
+    @Override
+    public String toString() {
+        return "FieldState(" + field + ")";
+    }
+
+}
@@ -0,0 +1,83 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * View of the elements of a source list that satisfy a predicate.
+ * <p> All source elements are kept in a weighted tree, where the kept elements weigh one,
+ * so that source indices and view indices are mapped to each other in logarithmic time. </p>
+ */
+final class FilteredList<T> extends ListView<T> {
+
+    private final Predicate<T> predicate;
+
+    private final IndexedTree<T> tree = new IndexedTree<>();
+
+    FilteredList(ListView<T> source, Predicate<T> predicate) {
+        super(source.getContext());
+        this.predicate = predicate;
+        for (var value : source.values()) {
+            tree.insert(tree.size(), value, weigh(value));
+        }
+        detach = source.attach(this::apply);
+    }
+
+    @Override
+    T read(int index) {
+        return tree.select(index).value;
+    }
+
+    @Override
+    int count() {
+        return tree.weight();
+    }
+
+    @Override
+    List<T> values() {
+        return tree.values(true);
+    }
+
+    private int weigh(T value) {
+        return predicate.test(value) ? 1 : 0;
+    }
+
+    private void apply(Runtime runtime, List<ListChange<T>> changes) {
+        var applied = new ArrayList<ListChange<T>>();
+        for (var change : changes) {
+            switch (change.kind()) {
+                case Insert -> {
+                    var node = tree.insert(change.index(), change.value(), weigh(change.value()));
+                    if (node.getWeight() == 1)
+                        applied.add(ListChange.insert(tree.weightBefore(node), node.value));
+                }
+                case Remove -> {
+                    var node = tree.node(change.index());
+                    var index = tree.weightBefore(node);
+                    tree.remove(node);
+                    if (node.getWeight() == 1)
+                        applied.add(ListChange.remove(index, node.value));
+                }
+                case Update -> {
+                    var node = tree.node(change.index());
+                    var index = tree.weightBefore(node);
+                    var oldValue = node.value;
+                    var wasKept = node.getWeight() == 1;
+                    var isKept = predicate.test(change.value());
+                    node.value = change.value();
+                    if (wasKept != isKept) tree.setWeight(node, isKept ? 1 : 0);
+                    if (wasKept && isKept) {
+                        applied.add(ListChange.update(index, node.value, oldValue));
+                    } else if (wasKept) {
+                        applied.add(ListChange.remove(index, oldValue));
+                    } else if (isKept) {
+                        applied.add(ListChange.insert(index, node.value));
+                    }
+                }
+            }
+        }
+        emit(runtime, applied);
+    }
+
+}
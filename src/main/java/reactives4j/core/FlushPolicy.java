@@ -0,0 +1,23 @@
+package reactives4j.core;
+
+/**
+ * Policy deciding when the writes of the tasks submitted to the runtime service are propagated, and effects run.
+ * Synchronous calls made on the runtime thread itself follow the policy of the task that makes them.
+ *
+ * @see Context#withFlushPolicy(FlushPolicy)
+ */
+public enum FlushPolicy {
+    /**
+     * Every write is propagated as soon as it is applied, unless it is part of a batch.
+     */
+    Immediate,
+    /**
+     * The writes of a task are propagated together once the task returns, as if the task was a batch.
+     */
+    EndOfTask,
+    /**
+     * The writes of consecutive tasks are propagated together once no task is left in the queue of the runtime service,
+     * so bursts of tasks hitting the same nodes run their effects once.
+     */
+    EndOfQueueDrain
+}
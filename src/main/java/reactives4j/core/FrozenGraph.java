@@ -0,0 +1,154 @@
+package reactives4j.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flat propagation schedule of a stable reactive graph.
+ * <p> Nodes are laid out in topological order, and their edges are stored in compressed rows:
+ * the subscribers of the node at slot {@code i} are the slots {@code downstream[downOffsets[i]]}
+ * up to {@code downstream[downOffsets[i + 1]]}, and likewise for its sources. Each row is sorted by slot.
+ * While a runtime is frozen, marking, checking and scheduling follow these arrays instead of the graph maps,
+ * and subscribers are run in topological order. </p>
+ * <p> The schedule is dropped as soon as the graph changes: when a node is created or disposed,
+ * when an observer reads a node it did not depend on, or when a re-running observer does not read one of its sources
+ * again. The runtime then falls back to dynamic tracking. </p>
+ *
+ * @see Context#freeze()
+ */
+final class FrozenGraph {
+
+    final BaseNode<?>[] order;
+
+    final int[] downOffsets;
+
+    final int[] downstream;
+
+    final int[] upOffsets;
+
+    final int[] upstream;
+
+    /**
+     * Slots of the subscribers marked since the last pass, run in slot order.
+     */
+    final BitSet scheduled;
+
+    /**
+     * Queue of the marking traversal, preallocated since every node is queued at most once.
+     */
+    final int[] queue;
+
+    /**
+     * Slots queued by the marking traversal in progress, cleared once it ends.
+     */
+    final BitSet visited;
+
+    /**
+     * Source edges read again by the observers re-running with their frozen edges, indexed like {@link #upstream}.
+     */
+    final BitSet read;
+
+    private FrozenGraph(BaseNode<?>[] order, int edges) {
+        this.order = order;
+        var size = order.length;
+        downOffsets = new int[size + 1];
+        downstream = new int[edges];
+        upOffsets = new int[size + 1];
+        upstream = new int[edges];
+        scheduled = new BitSet(size);
+        queue = new int[size];
+        visited = new BitSet(size);
+        read = new BitSet(edges);
+    }
+
+    /**
+     * Lays out the current graph of the runtime, or returns null if the graph has a cycle.
+     */
+    static FrozenGraph build(Runtime runtime) {
+        var subscribers = runtime.getSubscribers();
+        var sources = runtime.getSources();
+
+        var all = new LinkedHashSet<BaseNode<?>>(runtime.getNodes());
+        subscribers.forEach((node, children) -> {
+            all.add(node);
+            all.addAll(children);
+        });
+
+        // topological sort
+        var indegree = new HashMap<BaseNode<?>, Integer>();
+        var ready = new ArrayDeque<BaseNode<?>>();
+        for (var node : all) {
+            var count = sources.getOrDefault(node, Set.of()).size();
+            indegree.put(node, count);
+            if (count == 0) ready.add(node);
+        }
+        var order = new BaseNode<?>[all.size()];
+        var slots = new HashMap<BaseNode<?>, Integer>();
+        int size = 0, edges = 0;
+        while (!ready.isEmpty()) {
+            var node = ready.poll();
+            slots.put(node, size);
+            order[size++] = node;
+            for (var child : subscribers.getOrDefault(node, Set.of())) {
+                edges++;
+                if (indegree.merge(child, -1, Integer::sum) == 0) ready.add(child);
+            }
+        }
+        if (size != order.length) return null;
+
+        var graph = new FrozenGraph(order, edges);
+        fill(order, subscribers, slots, graph.downOffsets, graph.downstream);
+        fill(order, sources, slots, graph.upOffsets, graph.upstream);
+        for (int i = 0; i < order.length; i++) {
+            order[i].slot = i;
+        }
+        return graph;
+    }
+
+    private static void fill(BaseNode<?>[] order, Map<BaseNode<?>, Set<BaseNode<?>>> edges,
+                             Map<BaseNode<?>, Integer> slots, int[] offsets, int[] targets) {
+        int edge = 0;
+        for (int i = 0; i < order.length; i++) {
+            offsets[i] = edge;
+            for (var target : edges.getOrDefault(order[i], Set.of())) {
+                targets[edge++] = slots.get(target);
+            }
+            Arrays.sort(targets, offsets[i], edge);
+        }
+        offsets[order.length] = edge;
+    }
+
+    /**
+     * Records that the observer at the given slot read the source at the given slot again.
+     */
+    void read(int observer, int source) {
+        var edge = Arrays.binarySearch(upstream, upOffsets[observer], upOffsets[observer + 1], source);
+        if (edge >= 0) read.set(edge);
+    }
+
+    /**
+     * Returns whether the observer at the given slot read all of its sources again.
+     */
+    boolean readAll(int observer) {
+        return read.nextClearBit(upOffsets[observer]) >= upOffsets[observer + 1];
+    }
+
+    void clearReads(int observer) {
+        read.clear(upOffsets[observer], upOffsets[observer + 1]);
+    }
+
+    /**
+     * Detaches the nodes from the schedule.
+     */
+    void release() {
+        for (var node : order) {
+            node.slot = -1;
+        }
+    }
+
+}
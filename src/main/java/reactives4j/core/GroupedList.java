@@ -0,0 +1,271 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Elements of a source list grouped by key, each group being a list view in source order.
+ * <p> The entries of a group are ordered by their position in the source,
+ * so a change is applied to its group in logarithmic time without scanning the other groups.
+ * Entries carry a label increasing with their source position, so they are compared in constant time
+ * while searching their group. A new entry takes the middle label between its neighbours. Once they have no free
+ * label between them, the smallest aligned range of labels around them that is sparse enough is spread evenly,
+ * which relabels a logarithmic number of entries per insert in amortized time.
+ * Groups are created on first use, and stay valid when they become empty. </p>
+ *
+ * @param <K> type of the keys
+ * @param <T> type of the elements
+ * @see ListView#groupBy(Function)
+ */
+public class GroupedList<K, T> implements Handle {
+
+    /**
+     * Number of bits of the labels, which are non-negative and below {@code 1L << LabelBits}.
+     */
+    private static final int LabelBits = 62;
+
+    /**
+     * Growth of the number of entries that a range of labels may hold when it is spread, per doubling of its size.
+     * Below two, so that a spread range always leaves free labels between its entries.
+     */
+    private static final double Growth = 1.5;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    private final Function<T, K> classifier;
+
+    /**
+     * Entries in source order.
+     */
+    private final IndexedTree<Entry<K, T>> entries = new IndexedTree<>();
+
+    private final Map<K, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Triggered when a group becomes empty or non-empty.
+     */
+    private final Trigger keys;
+
+    private final Runnable detach;
+
+    GroupedList(ListView<T> source, Function<T, K> classifier) {
+        context = source.getContext();
+        this.classifier = classifier;
+        keys = Trigger.create(context);
+        var ignored = new LinkedHashMap<Group, List<ListChange<T>>>();
+        for (var value : source.values()) {
+            insert(entries.size(), value, ignored);
+        }
+        detach = source.attach(this::apply);
+    }
+
+    /**
+     * Returns the group of the given key, which is empty if no element has this key.
+     */
+    public ListView<T> group(K key) {
+        return context.with(runtime -> {
+            return groups.computeIfAbsent(key, ignored -> new Group());
+        });
+    }
+
+    /**
+     * Returns the keys of the non-empty groups.
+     */
+    public Set<K> keys() {
+        return context.with(runtime -> {
+            keys.track(runtime);
+            var result = new LinkedHashSet<K>();
+            groups.forEach((key, group) -> {
+                if (group.count() > 0) result.add(key);
+            });
+            return result;
+        });
+    }
+
+    /**
+     * Detaches the groups from the source and disposes them.
+     */
+    @Override
+    public void dispose() {
+        context.with(runtime -> {
+            detach.run();
+            runtime.disposeNode(keys);
+            groups.values().forEach(Group::dispose);
+        });
+    }
+
+    private void apply(Runtime runtime, List<ListChange<T>> changes) {
+        var applied = new LinkedHashMap<Group, List<ListChange<T>>>();
+        var keysChanged = false;
+        for (var change : changes) {
+            var index = change.index();
+            switch (change.kind()) {
+                case Insert -> keysChanged |= insert(index, change.value(), applied);
+                case Remove -> keysChanged |= remove(index, applied);
+                case Update -> {
+                    var entry = entries.node(index).value;
+                    if (Objects.equals(entry.key, classifier.apply(change.value()))) {
+                        var group = groups.get(entry.key);
+                        var oldValue = entry.value;
+                        entry.value = change.value();
+                        changesOf(applied, group).add(ListChange.update(group.tree.indexOf(entry.node), entry.value, oldValue));
+                    } else {
+                        keysChanged |= remove(index, applied);
+                        keysChanged |= insert(index, change.value(), applied);
+                    }
+                }
+            }
+        }
+        applied.forEach((group, groupChanges) -> group.emit(runtime, groupChanges));
+        if (keysChanged) keys.trigger(runtime);
+    }
+
+    /**
+     * Inserts an element at the given source index, and returns true if its group was empty.
+     */
+    private boolean insert(int index, T value, Map<Group, List<ListChange<T>>> applied) {
+        var entry = new Entry<>(classifier.apply(value), value);
+        entry.source = entries.insert(index, entry, 1);
+        label(entry.source);
+        var group = groups.computeIfAbsent(entry.key, ignored -> new Group());
+        var groupIndex = group.tree.countBefore(other -> Long.compare(entry.order, other.order));
+        entry.node = group.tree.insert(groupIndex, entry, 1);
+        changesOf(applied, group).add(ListChange.insert(groupIndex, value));
+        return group.tree.size() == 1;
+    }
+
+    /**
+     * Removes the element at the given source index, and returns true if its group became empty.
+     */
+    private boolean remove(int index, Map<Group, List<ListChange<T>>> applied) {
+        var source = entries.node(index);
+        var entry = source.value;
+        var group = groups.get(entry.key);
+        var groupIndex = group.tree.indexOf(entry.node);
+        group.tree.remove(entry.node);
+        entries.remove(source);
+        changesOf(applied, group).add(ListChange.remove(groupIndex, entry.value));
+        return group.tree.size() == 0;
+    }
+
+    /**
+     * Gives the entry of the given source node a label between the labels of its neighbours.
+     */
+    private void label(IndexedTree.Node<Entry<K, T>> node) {
+        var previous = entries.previous(node);
+        var next = entries.next(node);
+        var before = previous == null ? -1 : previous.value.order;
+        var after = next == null ? 1L << LabelBits : next.value.order;
+        if (after - before > 1) {
+            node.value.order = before + (after - before) / 2;
+        } else {
+            relabel(node, previous, next);
+        }
+    }
+
+    /**
+     * Spreads the labels of the smallest aligned range around the new entry that is sparse enough,
+     * including the new entry. Ranges are grown from the label of a neighbour, and their entries are contiguous
+     * in source order, so they are found by walking the neighbours.
+     */
+    private void relabel(IndexedTree.Node<Entry<K, T>> node,
+                         IndexedTree.Node<Entry<K, T>> previous, IndexedTree.Node<Entry<K, T>> next) {
+        var anchor = (previous != null ? previous : next).value.order;
+        var first = node;
+        var count = 1;
+        var capacity = 1.0;
+        for (int level = 1; ; level++) {
+            var size = 1L << level;
+            var base = anchor & -size;
+            while (previous != null && previous.value.order >= base) {
+                first = previous;
+                previous = entries.previous(previous);
+                count++;
+            }
+            while (next != null && next.value.order < base + size) {
+                next = entries.next(next);
+                count++;
+            }
+            capacity *= Growth;
+            if (count <= capacity || level == LabelBits) {
+                var spacing = size / count;
+                var current = first;
+                for (int i = 0; i < count; i++) {
+                    current.value.order = base + i * spacing;
+                    current = entries.next(current);
+                }
+                return;
+            }
+        }
+    }
+
+    private List<ListChange<T>> changesOf(Map<Group, List<ListChange<T>>> applied, Group group) {
+        return applied.computeIfAbsent(group, ignored -> new ArrayList<>());
+    }
+
+    private final class Group extends ListView<T> {
+
+        private final IndexedTree<Entry<K, T>> tree = new IndexedTree<>();
+
+        private Group() {
+            super(context);
+        }
+
+        @Override
+        T read(int index) {
+            return tree.node(index).value.value;
+        }
+
+        @Override
+        int count() {
+            return tree.size();
+        }
+
+        @Override
+        List<T> values() {
+            var values = new ArrayList<T>(tree.size());
+            tree.values(false).forEach(entry -> values.add(entry.value));
+            return values;
+        }
+
+    }
+
+    private static final class Entry<K, T> {
+
+        private final K key;
+
+        private T value;
+
+        /**
+         * Label increasing with the source position of the entry.
+         */
+        private long order;
+
+        /**
+         * Node of the entry in the source order.
+         */
+        private IndexedTree.Node<Entry<K, T>> source;
+
+        /**
+         * Node of the entry in its group.
+         */
+        private IndexedTree.Node<Entry<K, T>> node;
+
+        private Entry(K key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+}
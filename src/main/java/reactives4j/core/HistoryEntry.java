@@ -0,0 +1,11 @@
+package reactives4j.core;
+
+/**
+ * Past value of a reactive value.
+ *
+ * @param version runtime clock of the write that set the value
+ * @param value   value set by the write
+ * @param <T>     type of the value
+ * @see Reactive#getHistory()
+ */
+public record HistoryEntry<T>(long version, T value) { }
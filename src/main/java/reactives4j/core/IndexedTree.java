@@ -0,0 +1,263 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * Positional list backed by an implicit treap, used by the incremental collection operators.
+ * <p> Elements are addressed by index, and each node carries a weight of zero or one,
+ * so that the tree can also map between all elements and the weighted ones, such as the elements kept by a filter.
+ * Nodes link to their parent, so the index of a node can be found from the node itself.
+ * All operations take logarithmic time in expectation. </p>
+ * <p> Not thread-safe, only touched on the runtime thread. </p>
+ *
+ * @param <E> type of the elements
+ */
+final class IndexedTree<E> {
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    @SuppressWarnings("unchecked")
+    private final Node<E>[] parts = (Node<E>[]) new Node<?>[2];
+
+    private Node<E> root;
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the total weight of the elements.
+     */
+    int weight() {
+        return weight(root);
+    }
+
+    Node<E> insert(int index, E value, int weight) {
+        var node = new Node<>(value, weight, random.nextInt());
+        split(root, index);
+        var left = parts[0];
+        var right = parts[1];
+        root = merge(merge(left, node), right);
+        root.parent = null;
+        return node;
+    }
+
+    void remove(Node<E> node) {
+        var index = indexOf(node);
+        split(root, index);
+        var left = parts[0];
+        split(parts[1], 1);
+        root = merge(left, parts[1]);
+        if (root != null) root.parent = null;
+        node.parent = node.left = node.right = null;
+    }
+
+    Node<E> node(int index) {
+        var node = root;
+        while (node != null) {
+            var leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Returns the node holding the weighted element of the given rank.
+     */
+    Node<E> select(int rank) {
+        var node = root;
+        while (node != null) {
+            var leftWeight = weight(node.left);
+            if (rank < leftWeight) {
+                node = node.left;
+            } else if (rank == leftWeight && node.weight == 1) {
+                return node;
+            } else {
+                rank -= leftWeight + node.weight;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException(rank);
+    }
+
+    /**
+     * Returns the node following the given node, or null if it is the last one.
+     */
+    Node<E> next(Node<E> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) node = node.left;
+            return node;
+        }
+        while (node.parent != null && node == node.parent.right) node = node.parent;
+        return node.parent;
+    }
+
+    /**
+     * Returns the node preceding the given node, or null if it is the first one.
+     */
+    Node<E> previous(Node<E> node) {
+        if (node.left != null) {
+            node = node.left;
+            while (node.right != null) node = node.right;
+            return node;
+        }
+        while (node.parent != null && node == node.parent.left) node = node.parent;
+        return node.parent;
+    }
+
+    int indexOf(Node<E> node) {
+        var index = size(node.left);
+        for (var current = node; current.parent != null; current = current.parent) {
+            if (current == current.parent.right)
+                index += size(current.parent.left) + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the total weight of the elements before the given node.
+     */
+    int weightBefore(Node<E> node) {
+        var weight = weight(node.left);
+        for (var current = node; current.parent != null; current = current.parent) {
+            if (current == current.parent.right)
+                weight += weight(current.parent.left) + current.parent.weight;
+        }
+        return weight;
+    }
+
+    void setWeight(Node<E> node, int weight) {
+        node.weight = weight;
+        for (var current = node; current != null; current = current.parent) {
+            refresh(current);
+        }
+    }
+
+    /**
+     * Returns the number of elements ordered before a new element in a sorted tree.
+     *
+     * @param comparison compares the new element to the given element, as a comparator would
+     */
+    int countBefore(ToIntFunction<E> comparison) {
+        int count = 0;
+        var node = root;
+        while (node != null) {
+            if (comparison.applyAsInt(node.value) < 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the elements in order, only keeping the weighted ones if requested.
+     */
+    List<E> values(boolean weightedOnly) {
+        var values = new ArrayList<E>(weightedOnly ? weight() : size());
+        collect(root, values, weightedOnly);
+        return values;
+    }
+
+    private void collect(Node<E> node, List<E> values, boolean weightedOnly) {
+        if (node == null) return;
+        collect(node.left, values, weightedOnly);
+        if (!weightedOnly || node.weight == 1) values.add(node.value);
+        collect(node.right, values, weightedOnly);
+    }
+
+    /**
+     * Splits the tree into the first {@code index} elements and the rest, stored in {@link #parts}.
+     */
+    private void split(Node<E> node, int index) {
+        if (node == null) {
+            parts[0] = parts[1] = null;
+            return;
+        }
+        if (size(node.left) < index) {
+            split(node.right, index - size(node.left) - 1);
+            node.right = parts[0];
+            if (node.right != null) node.right.parent = node;
+            refresh(node);
+            node.parent = null;
+            parts[0] = node;
+        } else {
+            split(node.left, index);
+            node.left = parts[1];
+            if (node.left != null) node.left.parent = node;
+            refresh(node);
+            node.parent = null;
+            parts[1] = node;
+        }
+    }
+
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.right.parent = left;
+            refresh(left);
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            right.left.parent = right;
+            refresh(right);
+            return right;
+        }
+    }
+
+    private static void refresh(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        node.totalWeight = weight(node.left) + weight(node.right) + node.weight;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int weight(Node<?> node) {
+        return node == null ? 0 : node.totalWeight;
+    }
+
+    static final class Node<E> {
+
+        E value;
+
+        private int weight;
+
+        private final int priority;
+
+        private Node<E> left, right, parent;
+
+        private int size = 1;
+
+        private int totalWeight;
+
+        private Node(E value, int weight, int priority) {
+            this.value = value;
+            this.weight = weight;
+            this.priority = priority;
+            totalWeight = weight;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+
+    }
+
+}
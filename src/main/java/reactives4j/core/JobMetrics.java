@@ -0,0 +1,29 @@
+package reactives4j.core;
+
+/**
+ * Point-in-time counters of a watch job.
+ *
+ * @param policy    execution policy of the job
+ * @param submitted number of source changes handed to the job
+ * @param started   number of runs started
+ * @param completed number of runs that finished, successfully or not
+ * @param failed    number of runs that threw an exception
+ * @param cancelled number of runs cancelled by a newer change
+ * @param conflated number of pending runs replaced by a newer change
+ * @param dropped   number of changes dropped without a run
+ * @param active    number of runs in progress
+ * @param pending   number of runs waiting for the run in progress
+ * @see WatchJob#getMetrics()
+ */
+public record JobMetrics(
+        JobPolicy policy,
+        long submitted,
+        long started,
+        long completed,
+        long failed,
+        long cancelled,
+        long conflated,
+        long dropped,
+        int active,
+        int pending
+) { }
@@ -0,0 +1,67 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+/**
+ * Execution policy of a watch job.
+ * Decides what happens when the source of the job changes while a previous run is still in progress.
+ *
+ * @param mode     policy mode
+ * @param capacity maximum number of pending runs, only used by {@link Mode#Queue}
+ * @see WatchJob
+ */
+public record JobPolicy(@NotNull Mode mode, int capacity) {
+
+    public JobPolicy {
+        if (mode == Mode.Queue && capacity < 1)
+            ReactiveUtil.panic("Queue capacity of a job policy must be positive");
+    }
+
+    /**
+     * Every change submits a new run, regardless of the runs in progress.
+     */
+    @Contract(" -> new")
+    public static @NotNull JobPolicy unbounded() {
+        return new JobPolicy(Mode.Unbounded, 0);
+    }
+
+    /**
+     * At most one run in progress, and one pending run carrying the latest value.
+     */
+    @Contract(" -> new")
+    public static @NotNull JobPolicy conflate() {
+        return new JobPolicy(Mode.Conflate, 1);
+    }
+
+    /**
+     * Every change cancels the run in progress and starts a new one.
+     */
+    @Contract(" -> new")
+    public static @NotNull JobPolicy switchLatest() {
+        return new JobPolicy(Mode.Switch, 0);
+    }
+
+    /**
+     * At most one run in progress, and up to {@code capacity} pending runs.
+     * Changes that do not fit in the queue are dropped.
+     */
+    @Contract("_ -> new")
+    public static @NotNull JobPolicy queue(int capacity) {
+        return new JobPolicy(Mode.Queue, capacity);
+    }
+
+    /**
+     * At most one run in progress. Changes during a run are dropped.
+     */
+    @Contract(" -> new")
+    public static @NotNull JobPolicy drop() {
+        return new JobPolicy(Mode.Drop, 0);
+    }
+
+    public enum Mode {
+        Unbounded, Conflate, Switch, Queue, Drop
+    }
+
+}
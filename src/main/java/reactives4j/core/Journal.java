@@ -0,0 +1,468 @@
+package reactives4j.core;
+
+import lombok.extern.log4j.Log4j2;
+import reactives4j.util.ReactiveUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of the writes of reactive values.
+ * <p> Records are encoded on the runtime thread, and appended to an in-memory buffer.
+ * A single writer thread drains the buffer to the file, so all the records appended while it was busy
+ * are written with a single call, and syncs the file according to the {@link JournalPolicy}. </p>
+ * <p> Each record is framed by its kind, its length and a checksum, so a torn tail left by a crash is detected,
+ * and truncated when the journal is opened again. A write record holds the id of the node, the value of the
+ * runtime clock after the write, and the value encoded by its {@link Codec}. Codec names are stored once
+ * per journal session, in definition records preceding their first use. </p>
+ *
+ * @see Context#withJournal(Path, JournalPolicy)
+ */
+@Log4j2
+final class Journal {
+
+    private static final int Magic = 0x52344A4A;
+
+    private static final int Version = 1;
+
+    private static final int HeaderSize = 8;
+
+    private static final byte CodecRecord = 0;
+
+    private static final byte WriteRecord = 1;
+
+    /**
+     * Size of the buffer records are read through. Larger payloads are read directly into their own array.
+     */
+    private static final int ReadBufferSize = 1 << 16;
+
+    private final FileChannel channel;
+
+    private final JournalPolicy policy;
+
+    private final CodecRegistry codecs;
+
+    /**
+     * Indices of the codecs defined in the current session. Only touched on the runtime thread.
+     */
+    private final Map<String, Integer> codecIndices = new HashMap<>();
+
+    /**
+     * Value classes without a codec, already warned about. Only touched on the runtime thread.
+     */
+    private final Set<Class<?>> unsupported = new HashSet<>();
+
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition wakeup = lock.newCondition();
+
+    private final Condition syncedChanged = lock.newCondition();
+
+    /**
+     * Records appended but not yet handed to the writer.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    private final Thread writer;
+
+    private long appended = 0;
+
+    private long synced = 0;
+
+    private long syncRequested = 0;
+
+    private boolean closing = false;
+
+    private IOException error;
+
+    private Journal(FileChannel channel, JournalPolicy policy, CodecRegistry codecs, String name) {
+        this.channel = channel;
+        this.policy = policy;
+        this.codecs = codecs;
+        writer = Thread.ofVirtual().name(name + "-journal").start(this::work);
+    }
+
+    /**
+     * Opens the journal at the given path for appending, and truncates the torn tail of a previous session if any.
+     */
+    static Journal open(Path path, JournalPolicy policy, CodecRegistry codecs, String name) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(HeaderSize).putInt(Magic).putInt(Version).flip());
+            } else {
+                var reader = new RecordReader(channel);
+                while (reader.next() != null) {
+                    // only the end of the valid records is needed
+                }
+                var valid = reader.getValid();
+                if (valid < channel.size()) {
+                    log.warn("{}: Truncating {} bytes of torn journal records", name, channel.size() - valid);
+                    channel.truncate(valid);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new Journal(channel, policy, codecs, name);
+    }
+
+    /**
+     * Appends the current value of the node. Called on the runtime thread after every write.
+     */
+    void append(Runtime runtime, BaseNode<?> node, long version) {
+        var id = node.id;
+        var value = node.getState().snapshotValue();
+        if (id < 0 || value.isNothing()) return;
+        var codec = codecs.forValue(value.getUnchecked());
+        if (codec == null) {
+            if (unsupported.add(value.getUnchecked().getClass()))
+                log.warn("{}: No codec for {}, its writes are not journaled",
+                        node.getContext().getDebugName(), value.getUnchecked().getClass().getName());
+            return;
+        }
+
+        try {
+            var record = new ByteArrayOutputStream();
+            var index = codecIndices.get(codec.name());
+            if (index == null) {
+                index = codecIndices.size();
+                codecIndices.put(codec.name(), index);
+                payload.reset();
+                payloadOut.writeShort(index);
+                payloadOut.writeUTF(codec.name());
+                frame(CodecRecord, record);
+            }
+            payload.reset();
+            payloadOut.writeLong(id);
+            payloadOut.writeLong(version);
+            payloadOut.writeShort(index);
+            encode(codec, value.getUnchecked());
+            frame(WriteRecord, record);
+            enqueue(record);
+        } catch (IOException e) {
+            ReactiveUtil.panic(e);
+        }
+    }
+
+    /**
+     * Blocks until all the records appended so far are synced.
+     */
+    void sync() {
+        lock.lock();
+        try {
+            var target = appended;
+            syncRequested = Math.max(syncRequested, target);
+            wakeup.signal();
+            while (synced < target && error == null) {
+                syncedChanged.awaitUninterruptibly();
+            }
+            checkError();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and syncs the remaining records, and closes the file.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closing = true;
+            wakeup.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies the write records of the given journal to the nodes of the runtime, in batches.
+     * Records are streamed from the file, so only one batch is held in memory at a time.
+     * Writes of unknown nodes, and values of unknown codecs, are skipped.
+     *
+     * @return the number of applied writes
+     */
+    static long replay(Runtime runtime, Path path, int batchSize) throws IOException {
+        var nodes = new HashMap<Long, BaseNode<?>>();
+        for (var node : runtime.getNodes()) {
+            if (node.id >= 0) nodes.put(node.id, node);
+        }
+
+        var codecNames = new HashMap<Integer, String>();
+        var batch = new ArrayList<Runnable>();
+        long applied = 0;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var reader = new RecordReader(channel);
+            Record record;
+            while ((record = reader.next()) != null) {
+                var in = new DataInputStream(new ByteArrayInputStream(record.payload));
+                if (record.kind == CodecRecord) {
+                    var index = (int) in.readShort();
+                    codecNames.put(index, in.readUTF());
+                    continue;
+                }
+                var node = nodes.get(in.readLong());
+                var version = in.readLong();
+                var codec = runtime.getCodecs().forName(codecNames.getOrDefault((int) in.readShort(), ""));
+                if (node == null || !node.getState().isWritable() || codec == null) continue;
+                var value = codec.decode(in);
+                batch.add(() -> {
+                    setValue(node, value);
+                    // the write is committed at the clock it had when it was journaled
+                    runtime.advanceClock(version - 1);
+                    runtime.commitWrite(node);
+                    node.trigger(runtime);
+                });
+                if (batch.size() == batchSize) applied += apply(runtime, batch);
+            }
+        }
+        applied += apply(runtime, batch);
+        return applied;
+    }
+
+    /**
+     * Applies the given writes as a single batch, and clears them.
+     */
+    private static int apply(Runtime runtime, List<Runnable> batch) {
+        if (batch.isEmpty()) return 0;
+        runtime.batch(() -> batch.forEach(Runnable::run));
+        var count = batch.size();
+        batch.clear();
+        return count;
+    }
+
+    private void enqueue(ByteArrayOutputStream record) {
+        lock.lock();
+        try {
+            checkError();
+            if (closing)
+                ReactiveUtil.panic("Closed journal");
+            record.writeTo(pending);
+            appended++;
+            wakeup.signal();
+        } catch (IOException e) {
+            ReactiveUtil.panic(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        long unsynced = 0;
+        long firstUnsynced = 0;
+        var maxDelay = policy.maxDelay() == null ? -1 : policy.maxDelay().toNanos();
+        while (true) {
+            byte[] chunk;
+            long target;
+            boolean requested;
+            boolean closed;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closing && syncRequested <= synced) {
+                    if (unsynced > 0 && maxDelay >= 0) {
+                        var remaining = firstUnsynced + maxDelay - System.nanoTime();
+                        if (remaining <= 0) break;
+                        wakeup.awaitNanos(remaining);
+                    } else {
+                        wakeup.awaitUninterruptibly();
+                    }
+                }
+                chunk = pending.toByteArray();
+                pending.reset();
+                target = appended;
+                requested = syncRequested > synced;
+                closed = closing;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                var records = target - synced - unsynced;
+                if (chunk.length > 0) {
+                    var buffer = ByteBuffer.wrap(chunk);
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    if (unsynced == 0) firstUnsynced = System.nanoTime();
+                    unsynced += records;
+                }
+                var expired = maxDelay >= 0 && System.nanoTime() - firstUnsynced >= maxDelay;
+                if (unsynced > 0 && (unsynced >= policy.batchSize() || expired || requested || closed)) {
+                    channel.force(false);
+                    unsynced = 0;
+                }
+                if (unsynced == 0) setSynced(target);
+                if (closed) {
+                    channel.close();
+                    return;
+                }
+            } catch (IOException e) {
+                log.error("Journal write failed: {}", e.getMessage());
+                lock.lock();
+                try {
+                    error = e;
+                    syncedChanged.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private void setSynced(long target) {
+        lock.lock();
+        try {
+            synced = target;
+            syncedChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkError() {
+        if (error != null)
+            ReactiveUtil.panic(error);
+    }
+
+    /**
+     * Frames the current payload as a record of the given kind: kind, length, payload and checksum.
+     */
+    private void frame(byte kind, ByteArrayOutputStream record) throws IOException {
+        var out = new DataOutputStream(record);
+        var crc = new CRC32();
+        crc.update(kind);
+        crc.update(payload.toByteArray());
+        out.writeByte(kind);
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+        out.writeInt((int) crc.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void encode(Codec<T> codec, Object value) throws IOException {
+        codec.encode((T) value, payloadOut);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void setValue(BaseNode<T> node, Object value) {
+        node.getState().setValue((T) value);
+    }
+
+    /**
+     * Sequential reader of the valid records of a journal, through a buffer of bounded size,
+     * so journals of any size are read without mapping or loading the whole file.
+     */
+    private static final class RecordReader {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(ReadBufferSize).flip();
+
+        /**
+         * File offset of the first byte not read into the buffer yet.
+         */
+        private long filled = 0;
+
+        /**
+         * End offset of the last valid record.
+         */
+        private long valid = HeaderSize;
+
+        RecordReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            size = channel.size();
+            if (!fill(HeaderSize) || buffer.getInt() != Magic)
+                throw new IOException("Invalid journal file");
+            var version = buffer.getInt();
+            if (version != Version)
+                throw new IOException("Unsupported journal version: " + version);
+        }
+
+        /**
+         * Returns the next valid record, or null once the records end or a torn record is found.
+         */
+        Record next() throws IOException {
+            if (!fill(1 + 4)) return null;
+            var kind = buffer.get();
+            var length = buffer.getInt();
+            if (length < 0 || size - offset() < length + 4L) return null;
+            var payload = new byte[length];
+            var buffered = Math.min(length, buffer.remaining());
+            buffer.get(payload, 0, buffered);
+            var rest = ByteBuffer.wrap(payload, buffered, length - buffered);
+            while (rest.hasRemaining()) {
+                var read = channel.read(rest, filled);
+                if (read < 0) return null;
+                filled += read;
+            }
+            if (!fill(4)) return null;
+            var crc = new CRC32();
+            crc.update(kind);
+            crc.update(payload);
+            if (buffer.getInt() != (int) crc.getValue()) return null;
+            valid = offset();
+            return new Record(kind, payload);
+        }
+
+        long getValid() {
+            return valid;
+        }
+
+        /**
+         * Returns the file offset of the next byte to read from the buffer.
+         */
+        private long offset() {
+            return filled - buffer.remaining();
+        }
+
+        /**
+         * Reads more of the file until the buffer holds the given number of bytes, and returns false if the file ends first.
+         */
+        private boolean fill(int needed) throws IOException {
+            if (buffer.remaining() >= needed) return true;
+            buffer.compact();
+            while (buffer.position() < needed) {
+                var read = channel.read(buffer, filled);
+                if (read < 0) break;
+                filled += read;
+            }
+            buffer.flip();
+            return buffer.remaining() >= needed;
+        }
+
+    }
+
+    private record Record(byte kind, byte[] payload) { }
+
+}
@@ -0,0 +1,53 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactives4j.util.ReactiveUtil;
+
+import java.time.Duration;
+
+/**
+ * Durability policy of a journal.
+ * Decides how many appended records may wait before they are forced to the storage device.
+ * Records are always written to the file as soon as the writer catches up, whatever the policy.
+ *
+ * @param batchSize maximum number of records waiting for a sync
+ * @param maxDelay  maximum time a record waits for a sync, or null if only the batch size bounds it
+ * @see Context#withJournal(java.nio.file.Path, JournalPolicy)
+ */
+public record JournalPolicy(int batchSize, @Nullable Duration maxDelay) {
+
+    public JournalPolicy {
+        if (batchSize < 1)
+            ReactiveUtil.panic("Batch size of a journal policy must be positive");
+        if (maxDelay != null && maxDelay.isNegative())
+            ReactiveUtil.panic("Maximum delay of a journal policy must not be negative");
+    }
+
+    /**
+     * Every record is synced before the next batch of records is written.
+     */
+    @Contract(" -> new")
+    public static @NotNull JournalPolicy everyWrite() {
+        return new JournalPolicy(1, Duration.ZERO);
+    }
+
+    /**
+     * Records are synced in groups of up to {@code batchSize} records,
+     * and no later than {@code maxDelay} after the first record of the group.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull JournalPolicy batched(int batchSize, @NotNull Duration maxDelay) {
+        return new JournalPolicy(batchSize, maxDelay);
+    }
+
+    /**
+     * Records are only synced on request and when the journal is closed, and otherwise left to the operating system.
+     */
+    @Contract(" -> new")
+    public static @NotNull JournalPolicy deferred() {
+        return new JournalPolicy(Integer.MAX_VALUE, null);
+    }
+
+}
@@ -0,0 +1,26 @@
+package reactives4j.core;
+
+/**
+ * Priority lane of a batch of writes. Propagation passes update the pending subscribers lane by lane,
+ * most urgent first, and a subscriber marked by writes of several lanes runs in the most urgent of them.
+ * Writes made by a subscriber inherit its lane.
+ *
+ * @see Context#batch(Lane, Runnable)
+ */
+public enum Lane {
+    /**
+     * Writes that must be visible as soon as possible, such as the response to user input.
+     * Urgent batches submitted from other threads preempt background propagation.
+     */
+    Urgent,
+    /**
+     * Writes made outside of lane batches.
+     */
+    Default,
+    /**
+     * Writes whose propagation can be delayed, such as prefetched or recomputed data.
+     * A background pass stops between two subscribers when an urgent batch is waiting,
+     * and resumes once the urgent batch is propagated.
+     */
+    Background
+}
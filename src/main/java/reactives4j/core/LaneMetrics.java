@@ -0,0 +1,16 @@
+package reactives4j.core;
+
+/**
+ * Point-in-time counters of a priority lane.
+ * The latency of a lane is the time from the submission of its oldest batch not propagated yet,
+ * to the end of the propagation pass leaving no subscriber of the lane pending.
+ *
+ * @param lane        priority lane
+ * @param flushes     number of latency samples, one per pass that caught up with the lane
+ * @param totalNanos  sum of the sampled latencies, in nanoseconds
+ * @param maxNanos    highest sampled latency, in nanoseconds
+ * @param preemptions number of passes stopped in the lane to let urgent batches run
+ * @param pending     number of subscribers of the lane waiting to be updated
+ * @see Context#getLaneMetrics()
+ */
+public record LaneMetrics(Lane lane, long flushes, long totalNanos, long maxNanos, long preemptions, int pending) { }
@@ -0,0 +1,155 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lane bookkeeping of a runtime: the lanes of the pending subscribers, and the latency counters of each lane.
+ * Lanes are only tracked once a lane batch has run, so plain writes pay nothing for them.
+ */
+final class Lanes {
+
+    private static final Lane[] Values = Lane.values();
+
+    /**
+     * Whether a lane batch has run.
+     */
+    boolean enabled = false;
+
+    /**
+     * Lane of the writes being made.
+     */
+    Lane current = Lane.Default;
+
+    /**
+     * Lanes of the pending subscribers outside of the default lane.
+     */
+    final Map<BaseNode<?>, Lane> marked = new HashMap<>();
+
+    /**
+     * Number of urgent batches submitted from other threads that did not start yet.
+     */
+    final AtomicInteger urgentWaiting = new AtomicInteger();
+
+    /**
+     * Executor resuming preempted passes on the runtime thread, or null if passes cannot be preempted.
+     */
+    Executor executor;
+
+    /**
+     * Submission time of the oldest batch of each lane not propagated yet, or 0.
+     */
+    private final long[] since = new long[Values.length];
+
+    private final long[] flushes = new long[Values.length];
+
+    private final long[] totalNanos = new long[Values.length];
+
+    private final long[] maxNanos = new long[Values.length];
+
+    private final long[] preemptions = new long[Values.length];
+
+    /**
+     * Starts tracking a batch of the given lane.
+     */
+    void begin(Lane lane, long submittedAt, Executor executor) {
+        enabled = true;
+        if (this.executor == null)
+            this.executor = executor;
+        if (since[lane.ordinal()] == 0)
+            since[lane.ordinal()] = submittedAt;
+    }
+
+    Lane laneOf(BaseNode<?> node) {
+        return marked.getOrDefault(node, Lane.Default);
+    }
+
+    /**
+     * Records the lane of a pending subscriber, keeping the most urgent lane if it was already pending.
+     *
+     * @param added whether the subscriber was not pending yet
+     */
+    void mark(BaseNode<?> node, Lane lane, boolean added) {
+        if (!added && laneOf(node).ordinal() < lane.ordinal())
+            return;
+        if (lane == Lane.Default) {
+            marked.remove(node);
+        } else {
+            marked.put(node, lane);
+        }
+    }
+
+    /**
+     * Orders the given pending subscribers by lane, keeping their order within a lane,
+     * and forgets their lanes, since they are no longer pending.
+     *
+     * @return the lane of each subscriber, in the new order
+     */
+    Lane[] sort(BaseNode<?>[] nodes) {
+        var lanes = new Lane[nodes.length];
+        if (marked.isEmpty()) {
+            Arrays.fill(lanes, Lane.Default);
+            return lanes;
+        }
+        var sorted = new BaseNode<?>[nodes.length];
+        int index = 0;
+        for (var lane : Values) {
+            for (var node : nodes) {
+                if (laneOf(node) != lane) continue;
+                sorted[index] = node;
+                lanes[index++] = lane;
+            }
+        }
+        System.arraycopy(sorted, 0, nodes, 0, nodes.length);
+        marked.clear();
+        return lanes;
+    }
+
+    void preempted(Lane lane) {
+        preemptions[lane.ordinal()]++;
+    }
+
+    /**
+     * Samples the latency of the lanes left without pending subscribers by a propagation pass.
+     *
+     * @param pendingCount number of pending subscribers, in all lanes
+     */
+    void flushed(int pendingCount) {
+        for (var lane : Values) {
+            var i = lane.ordinal();
+            if (since[i] == 0 || count(lane, pendingCount) > 0) continue;
+            var latency = System.nanoTime() - since[i];
+            since[i] = 0;
+            flushes[i]++;
+            totalNanos[i] += latency;
+            maxNanos[i] = Math.max(maxNanos[i], latency);
+        }
+    }
+
+    List<LaneMetrics> metrics(int pendingCount) {
+        var metrics = new ArrayList<LaneMetrics>(Values.length);
+        for (var lane : Values) {
+            var i = lane.ordinal();
+            metrics.add(new LaneMetrics(
+                    lane, flushes[i], totalNanos[i], maxNanos[i], preemptions[i], count(lane, pendingCount)
+            ));
+        }
+        return metrics;
+    }
+
+    private int count(Lane lane, int pendingCount) {
+        if (lane == Lane.Default)
+            return pendingCount - marked.size();
+        int count = 0;
+        for (var value : marked.values()) {
+            if (value == lane) count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,32 @@
+package reactives4j.core;
+
+/**
+ * Single change of a reactive list.
+ *
+ * @param kind     kind of the change
+ * @param index    index of the change, after the previous changes of the same delta were applied
+ * @param value    inserted or new value, or the removed value
+ * @param oldValue replaced value of an update, null otherwise
+ * @param <T>      type of the elements
+ */
+public record ListChange<T>(Kind kind, int index, T value, T oldValue) {
+
+    public static <T> ListChange<T> insert(int index, T value) {
+        return new ListChange<>(Kind.Insert, index, value, null);
+    }
+
+    public static <T> ListChange<T> remove(int index, T value) {
+        return new ListChange<>(Kind.Remove, index, value, null);
+    }
+
+    public static <T> ListChange<T> update(int index, T value, T oldValue) {
+        return new ListChange<>(Kind.Update, index, value, oldValue);
+    }
+
+    public enum Kind {
+        Insert,
+        Remove,
+        Update
+    }
+
+}
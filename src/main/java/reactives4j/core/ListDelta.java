@@ -0,0 +1,18 @@
+package reactives4j.core;
+
+import java.util.List;
+
+/**
+ * Changes applied to a reactive list in a single runtime turn.
+ *
+ * @param version number of deltas applied to the list so far
+ * @param changes changes of the delta, in order
+ * @param <T>     type of the elements
+ */
+public record ListDelta<T>(long version, List<ListChange<T>> changes) {
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+}
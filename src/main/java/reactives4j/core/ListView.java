@@ -0,0 +1,203 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Readonly reactive list, maintained incrementally from the changes of its source.
+ * <p> Every view forwards the changes it applies to its derived views as deltas,
+ * so a single element edit costs logarithmic time in the size of the list instead of a full recomputation.
+ * The changes of a runtime turn are published as a single {@link ListDelta}. </p>
+ * <p> Observers can either track the materialized view, through {@link #get(int)}, {@link #size()} and {@link #toList()},
+ * or the delta stream, through {@link #changes()}. Both are updated at the same time. </p>
+ *
+ * @param <T> type of the elements
+ * @see ReactiveList
+ */
+public abstract class ListView<T> implements Handle {
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    /**
+     * Latest delta applied to the view, read by all observers of the view.
+     */
+    private final Reactive<ListDelta<T>> delta;
+
+    private final List<Listener<T>> listeners = new ArrayList<>();
+
+    /**
+     * Changes applied since the last published delta, or null if none are waiting for the batch to end.
+     */
+    private List<ListChange<T>> unpublished;
+
+    private long version = 0;
+
+    private Memo<ListDelta<T>> changes;
+
+    /**
+     * Detaches the view from its source, if any.
+     */
+    Runnable detach;
+
+    ListView(Context cx) {
+        context = cx;
+        delta = Reactive.create(cx, new ListDelta<>(0, List.of()));
+    }
+
+    /**
+     * Returns the element at the given index.
+     */
+    public T get(int index) {
+        return context.with(runtime -> {
+            delta.track(runtime);
+            return read(index);
+        });
+    }
+
+    public int size() {
+        return context.with(runtime -> {
+            delta.track(runtime);
+            return count();
+        });
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a copy of the elements of the view.
+     */
+    public List<T> toList() {
+        return context.with(runtime -> {
+            delta.track(runtime);
+            return values();
+        });
+    }
+
+    /**
+     * Returns a memo of the latest delta applied to the view.
+     */
+    public Memo<ListDelta<T>> changes() {
+        return context.with(runtime -> {
+            if (changes == null)
+                changes = Memo.create(context, delta::get, false);
+            return changes;
+        });
+    }
+
+    /**
+     * Returns a view of the elements transformed by the given function.
+     * The function is applied once per inserted or updated element.
+     */
+    @Contract("_ -> new")
+    public <U> @NotNull ListView<U> map(@NotNull Function<T, U> mapper) {
+        return context.with(runtime -> {
+            return new MappedList<>(this, mapper);
+        });
+    }
+
+    /**
+     * Returns a view of the elements that satisfy the given predicate, in order.
+     */
+    @Contract("_ -> new")
+    public @NotNull ListView<T> filter(@NotNull Predicate<T> predicate) {
+        return context.with(runtime -> {
+            return new FilteredList<>(this, predicate);
+        });
+    }
+
+    /**
+     * Returns a view of the elements sorted by the given comparator.
+     * The sort is stable: equal elements keep the order in which they were inserted.
+     */
+    @Contract("_ -> new")
+    public @NotNull ListView<T> sorted(@NotNull Comparator<T> comparator) {
+        return context.with(runtime -> {
+            return new SortedList<>(this, comparator);
+        });
+    }
+
+    /**
+     * Returns the elements grouped by the given key, each group keeping the order of the elements.
+     */
+    @Contract("_ -> new")
+    public <K> @NotNull GroupedList<K, T> groupBy(@NotNull Function<T, K> classifier) {
+        return context.with(runtime -> {
+            return new GroupedList<>(this, classifier);
+        });
+    }
+
+    /**
+     * Detaches the view from its source and disposes its nodes. Derived views stop receiving changes.
+     */
+    @Override
+    public void dispose() {
+        context.with(runtime -> {
+            if (detach != null) detach.run();
+            if (changes != null) runtime.disposeNode(changes);
+            runtime.disposeNode(delta);
+        });
+    }
+
+    abstract T read(int index);
+
+    abstract int count();
+
+    abstract List<T> values();
+
+    /**
+     * Registers a listener of the changes applied to the view, and returns the action removing it.
+     */
+    Runnable attach(Listener<T> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Forwards the changes applied to the view to the derived views, and collects them for observers.
+     * Must be called inside a runtime batch: the changes of the batch are published as a single delta once it ends,
+     * so that effects only run once all views are up-to-date.
+     */
+    void emit(Runtime runtime, List<ListChange<T>> changes) {
+        if (changes.isEmpty()) return;
+        var applied = List.copyOf(changes);
+        for (var listener : List.copyOf(listeners)) {
+            listener.apply(runtime, applied);
+        }
+        if (unpublished == null) {
+            unpublished = new ArrayList<>();
+            runtime.onBatchEnd(() -> publish(runtime));
+        }
+        unpublished.addAll(applied);
+    }
+
+    private void publish(Runtime runtime) {
+        var applied = List.copyOf(unpublished);
+        unpublished = null;
+        if (delta.hasFlag(BaseNode.Disposed)) return;
+        delta.getState().setValue(new ListDelta<>(++version, applied));
+        runtime.commitWrite(delta);
+        runtime.markDirty(delta);
+    }
+
+    /**
+     * Receiver of the changes of a view, called on the runtime thread.
+     */
+    @FunctionalInterface
+    interface Listener<T> {
+
+        void apply(Runtime runtime, List<ListChange<T>> changes);
+
+    }
+
+}
@@ -0,0 +1,12 @@
+package reactives4j.core;
+
+/**
+ * Point-in-time counters of an event loop.
+ *
+ * @param index     index of the loop in its group
+ * @param contexts  number of live contexts pinned to the loop
+ * @param completed number of runtime tasks run by the loop
+ * @param queued    number of runtime tasks waiting to run
+ * @see EventLoopGroup#getMetrics()
+ */
+public record LoopMetrics(int index, int contexts, long completed, int queued) { }
@@ -0,0 +1,108 @@
+package reactives4j.core;
+
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runtime service of a context pinned to a loop of an {@link EventLoopGroup}.
+ * Shutting it down only stops the tasks of its own context, and releases its place on the loop.
+ * <p> A failing task is logged and never reaches the loop, whose thread keeps serving the other contexts. </p>
+ */
+@Log4j2
+final class LoopService extends AbstractExecutorService {
+
+    private final EventLoopGroup.Loop loop;
+
+    private final Context context;
+
+    /**
+     * Number of tasks submitted and not finished yet.
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * Set once the tasks still queued on the loop must be skipped.
+     */
+    private volatile boolean cancelled = false;
+
+    LoopService(EventLoopGroup.Loop loop, Context context) {
+        this.loop = loop;
+        this.context = context;
+    }
+
+    Thread getThread() {
+        return loop.thread;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (shutdown)
+            throw new RejectedExecutionException(context.getDebugName() + ": Terminated runtime service");
+        running.incrementAndGet();
+        try {
+            loop.executor.execute(() -> {
+                try {
+                    if (!cancelled) command.run();
+                } catch (Throwable e) {
+                    log.error("{}: Task failed on its event loop: {}", context.getDebugName(), e.getMessage(), e);
+                } finally {
+                    if (running.decrementAndGet() == 0 && shutdown) terminated();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (shutdown) return;
+            shutdown = true;
+        }
+        loop.contexts.decrementAndGet();
+        if (running.get() == 0) terminated();
+    }
+
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        cancelled = true;
+        shutdown();
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && running.get() == 0;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    private synchronized void terminated() {
+        notifyAll();
+    }
+
+}
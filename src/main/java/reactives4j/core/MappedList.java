@@ -0,0 +1,66 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * View of the elements of a source list transformed by a function.
+ */
+final class MappedList<T, U> extends ListView<U> {
+
+    private final Function<T, U> mapper;
+
+    private final IndexedTree<U> tree = new IndexedTree<>();
+
+    MappedList(ListView<T> source, Function<T, U> mapper) {
+        super(source.getContext());
+        this.mapper = mapper;
+        for (var value : source.values()) {
+            tree.insert(tree.size(), mapper.apply(value), 1);
+        }
+        detach = source.attach(this::apply);
+    }
+
+    @Override
+    U read(int index) {
+        return tree.node(index).value;
+    }
+
+    @Override
+    int count() {
+        return tree.size();
+    }
+
+    @Override
+    List<U> values() {
+        return tree.values(false);
+    }
+
+    private void apply(Runtime runtime, List<ListChange<T>> changes) {
+        var applied = new ArrayList<ListChange<U>>(changes.size());
+        for (var change : changes) {
+            var index = change.index();
+            switch (change.kind()) {
+                case Insert -> {
+                    var value = mapper.apply(change.value());
+                    tree.insert(index, value, 1);
+                    applied.add(ListChange.insert(index, value));
+                }
+                case Remove -> {
+                    var node = tree.node(index);
+                    tree.remove(node);
+                    applied.add(ListChange.remove(index, node.value));
+                }
+                case Update -> {
+                    var node = tree.node(index);
+                    var oldValue = node.value;
+                    node.value = mapper.apply(change.value());
+                    applied.add(ListChange.update(index, node.value, oldValue));
+                }
+            }
+        }
+        emit(runtime, applied);
+    }
+
+}
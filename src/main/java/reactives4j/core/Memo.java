@@ -4,11 +4,55 @@ import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 public class Memo<T> extends BaseNode<T> {
 
+    private Memo(Context cx, MemoState<T> state) {
+        super(cx, NodeType.Memo, state, NodeStatus.Dirty);
+        state.bind(this);
+    }
+
+    private Memo(Context cx, Supplier<T> fx, CachePolicy policy) {
+        this(cx, new MemoState<>(fx, policy));
+    }
+
     private Memo(Context cx, Supplier<T> fx) {
-        super(cx, NodeType.Memo, new MemoState<>(fx), NodeStatus.Dirty);
+        this(cx, fx, CachePolicy.Retain);
+    }
+
+    static <T> Memo<T> createPure(Context cx, Supplier<T> fx) {
+        return cx.with(runtime -> {
+            var memo = new Memo<>(cx, new MemoState<>(fx, CachePolicy.Retain, value -> 1, true));
+            runtime.addNode(memo);
+            runtime.updateIfNecessary(memo);
+            return memo;
+        });
+    }
+
+    static <T> Memo<T> create(Context cx, Supplier<T> fx, ToLongFunction<T> weigher) {
+        return cx.with(runtime -> {
+            var memo = new Memo<>(cx, new MemoState<>(fx, CachePolicy.Weighted, weigher));
+            runtime.addNode(memo);
+            runtime.updateIfNecessary(memo);
+            return memo;
+        });
+    }
+
+    static <T> Memo<T> create(Context cx, Supplier<T> fx, CachePolicy policy) {
+        if (policy != CachePolicy.Cold) {
+            return cx.with(runtime -> {
+                var memo = new Memo<>(cx, fx, policy);
+                runtime.addNode(memo);
+                runtime.updateIfNecessary(memo);
+                return memo;
+            });
+        }
+
+        // cold memos are only evaluated once observed
+        var memo = new Memo<>(cx, fx, policy);
+        cx.doWith(runtime -> runtime.addNode(memo));
+        return memo;
     }
 
     static <T> Memo<T> create(Context cx, Supplier<T> fx, boolean lazy) {
@@ -64,4 +108,42 @@ public class Memo<T> extends BaseNode<T> {
         doWithNodeUntracked(action);
     }
 
+    /**
+     * Returns a memo holding the result of the given function applied to the value of this memo.
+     * <p> Chains of mapped memos are fused: as long as a mapped memo is only consumed by the next link of the chain,
+     * it is evaluated inline by that link, without a value or edges of its own. A link is split from the chain
+     * once it is read or observed on its own, or mapped a second time. </p>
+     * <p> Mapped memos are only evaluated once observed. </p>
+     */
+    public <U> Memo<U> map(Function<? super T, ? extends U> mapper) {
+        return getContext().with(runtime -> {
+            var link = new MemoLink<T, U>(this, mapper);
+            var memo = new Memo<>(getContext(), link);
+            runtime.addNode(memo);
+            var upstream = getLink();
+            if (upstream != null)
+                upstream.fuse(link);
+            return memo;
+        });
+    }
+
+    /**
+     * Returns the chain link of this memo, or null if the memo was not created by {@link #map(Function)}.
+     */
+    @SuppressWarnings("unchecked")
+    MemoLink<?, T> getLink() {
+        return ((MemoState<T>) getState()).getFunction() instanceof MemoLink<?, ?> link ? (MemoLink<?, T>) link : null;
+    }
+
+    /**
+     * Returns the cache counters of this memo.
+     *
+     * @see CachePolicy
+     */
+    public CacheStats getStats() {
+        return getContext().with(runtime -> {
+            return ((MemoState<T>) getState()).getStats();
+        });
+    }
+
 }
@@ -0,0 +1,57 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Size-weighted budget shared by the {@link CachePolicy#Weighted} memos of a runtime.
+ * When the total weight of the cached values exceeds the capacity,
+ * the least recently used values are evicted until it fits again.
+ */
+class MemoBudget {
+
+    @Getter(AccessLevel.PACKAGE)
+    private final long capacity;
+
+    @Getter(AccessLevel.PACKAGE)
+    private long weight = 0;
+
+    /**
+     * Weights of the cached values, in access order.
+     */
+    private final LinkedHashMap<MemoState<?>, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    MemoBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    void charge(MemoState<?> state, long valueWeight) {
+        var previous = entries.put(state, valueWeight);
+        weight += valueWeight - (previous == null ? 0 : previous);
+        evict(state);
+    }
+
+    void touch(MemoState<?> state) {
+        entries.get(state);
+    }
+
+    void remove(MemoState<?> state) {
+        var previous = entries.remove(state);
+        if (previous != null)
+            weight -= previous;
+    }
+
+    private void evict(MemoState<?> keep) {
+        var iter = entries.entrySet().iterator();
+        while (weight > capacity && iter.hasNext()) {
+            var entry = iter.next();
+            if (entry.getKey() == keep) continue;
+            iter.remove();
+            weight -= entry.getValue();
+            entry.getKey().evict();
+        }
+    }
+
+}
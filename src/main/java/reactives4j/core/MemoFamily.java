@@ -0,0 +1,144 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactives4j.util.ReactiveUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keyed family of memos, such as one derived value per symbol.
+ * <p> The memo of a key is created on first use and shared by all callers.
+ * Memos of a family are {@link CachePolicy#Cold}, so unobserved entries cost nothing during propagation.
+ * Once the family holds more entries than its maximum size, the least recently used unobserved entries
+ * are evicted and their memos disposed. Observed entries are never evicted, and neither is the entry
+ * of the latest lookup, so the family may exceed its maximum size until the next lookup. </p>
+ * <p> Eviction invalidates the memos handed out for the evicted keys: reading one of them fails with a
+ * {@link ReactiveException}. Callers should get the memo from the family again
+ * rather than keep it across evictions. The next lookup of an evicted key creates a new memo. </p>
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the memo values
+ * @see Context#memoFamily(Function, int)
+ */
+public class MemoFamily<K, V> implements Handle {
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    private final Function<K, Supplier<V>> factory;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final int maximumSize;
+
+    /**
+     * Memos of the family, in access order.
+     */
+    private final LinkedHashMap<K, Memo<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    private boolean evictionScheduled = false;
+
+    MemoFamily(Context cx, Function<K, Supplier<V>> factory, int maximumSize) {
+        if (maximumSize < 1)
+            ReactiveUtil.panic("Maximum size of a memo family must be positive");
+        context = cx;
+        this.factory = factory;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the memo of the given key, creating it on first use.
+     */
+    public Memo<V> get(K key) {
+        synchronized (entries) {
+            var memo = entries.get(key);
+            if (memo != null) {
+                hits++;
+            } else {
+                misses++;
+                memo = Memo.create(context, factory.apply(key), CachePolicy.Cold);
+                entries.put(key, memo);
+            }
+            if (entries.size() > maximumSize && !evictionScheduled) {
+                evictionScheduled = true;
+                context.doWith(this::evict);
+            }
+            return memo;
+        }
+    }
+
+    /**
+     * Returns the number of memos held by the family.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the family.
+     */
+    public FamilyStats getStats() {
+        synchronized (entries) {
+            return new FamilyStats(hits, misses, evictions, entries.size());
+        }
+    }
+
+    /**
+     * Disposes all the memos of the family.
+     */
+    @Override
+    public void dispose() {
+        ArrayList<Memo<V>> memos;
+        synchronized (entries) {
+            memos = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        memos.forEach(Memo::dispose);
+    }
+
+    /**
+     * Evicts the least recently used unobserved entries until the family fits its maximum size.
+     * The most recently used entry is kept, since its memo may not have been read by the caller yet.
+     */
+    private void evict(Runtime runtime) {
+        var evicted = new ArrayList<Memo<V>>();
+        synchronized (entries) {
+            evictionScheduled = false;
+            var iter = entries.values().iterator();
+            // the most recently used entry is the last one in access order
+            for (int left = entries.size() - 1; entries.size() > maximumSize && left > 0; left--) {
+                var memo = iter.next();
+                if (runtime.hasSubscribers(memo)) continue;
+                iter.remove();
+                evicted.add(memo);
+                evictions++;
+            }
+        }
+        for (var memo : evicted) {
+            memo.setFlag(BaseNode.Evicted);
+            runtime.disposeNode(memo);
+        }
+    }
+
+    /**
+     * Point-in-time counters of a memo family.
+     *
+     * @param hits      number of lookups that found an existing memo
+     * @param misses    number of lookups that created a memo
+     * @param evictions number of memos evicted from the family
+     * @param size      number of memos held by the family
+     */
+    public record FamilyStats(long hits, long misses, long evictions, int size) { }
+
+}
@@ -0,0 +1,72 @@
+package reactives4j.core;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Function of a memo created by {@link Memo#map(Function)}, a link of a memo chain.
+ * <p> A link that was never evaluated on its own, and has a single consumer created by {@code map},
+ * is fused into that consumer: the consumer evaluates the function of the link inline,
+ * and subscribes to the first unfused memo up the chain, so the links in between hold no value and no edges. </p>
+ * <p> A link is split from its consumer as soon as it is evaluated on its own, once it is read or observed,
+ * or once it is mapped a second time. The consumer keeps its value, and subscribes to the link
+ * on its next evaluation. </p>
+ *
+ * @param <S> type of the source memo
+ * @param <T> type of the mapped value
+ */
+final class MemoLink<S, T> implements Supplier<T> {
+
+    private final Memo<S> source;
+
+    private final Function<? super S, ? extends T> mapper;
+
+    /**
+     * Link of the consumer evaluating this link inline, or null if the link is not fused.
+     */
+    private MemoLink<T, ?> consumer;
+
+    /**
+     * Whether the link was split from its chain, after which it is never fused again.
+     */
+    private boolean split = false;
+
+    MemoLink(Memo<S> source, Function<? super S, ? extends T> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public T get() {
+        return mapper.apply(input());
+    }
+
+    private S input() {
+        var upstream = source.getLink();
+        if (upstream != null && upstream.consumer == this)
+            return upstream.get();
+        return source.get();
+    }
+
+    boolean isFused() {
+        return consumer != null;
+    }
+
+    /**
+     * Fuses this link into its new consumer, or splits it if it already has one.
+     */
+    void fuse(MemoLink<T, ?> link) {
+        if (split) return;
+        if (consumer == null) {
+            consumer = link;
+        } else {
+            split();
+        }
+    }
+
+    void split() {
+        split = true;
+        consumer = null;
+    }
+
+}
@@ -2,28 +2,126 @@ package reactives4j.core;
 
 import org.jetbrains.annotations.NotNull;
 import reactives4j.maybe.Maybe;
+import reactives4j.util.ReactiveUtil;
 
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 class MemoState<T> extends BaseState<T> {
 
     private final Supplier<T> function;
 
-    private final Maybe<T> value = Maybe.nothing();
+    private final CachePolicy policy;
 
-    MemoState(Supplier<T> fx) {
+    /**
+     * Weight of a value against the memo budget of the runtime, only used by {@link CachePolicy#Weighted}.
+     */
+    private final ToLongFunction<T> weigher;
+
+    /**
+     * Whether the function is side effect free, and may be evaluated off the runtime thread.
+     */
+    private final boolean pure;
+
+    /**
+     * Value held inline, null if absent.
+     */
+    private T value;
+
+    /**
+     * Softly held value, only used by {@link CachePolicy#Soft}. The value is then absent from {@link #value}.
+     */
+    private SoftReference<T> softValue;
+
+    /**
+     * Whether the value was evicted by the memo budget of the runtime.
+     */
+    private boolean evicted = false;
+
+    /**
+     * Evicted value, weakly held to tell whether the next value changed as long as the value is reachable elsewhere.
+     */
+    private WeakReference<T> witness;
+
+    /**
+     * Node holding this state, used to recompute evicted values with the node as the observer.
+     */
+    private BaseNode<T> node;
+
+    /**
+     * Loader of a value restored from a snapshot, until the value is first read.
+     * Cleared once the value is stored, so that parallel evaluations reading it as null see the value.
+     */
+    private volatile Supplier<T> loader;
+
+    private long evictions = 0;
+
+    private long recomputes = 0;
+
+    MemoState(Supplier<T> fx, CachePolicy policy, ToLongFunction<T> weigher, boolean pure) {
         function = fx;
+        this.policy = policy;
+        this.weigher = weigher;
+        this.pure = pure;
+    }
+
+    MemoState(Supplier<T> fx, CachePolicy policy, ToLongFunction<T> weigher) {
+        this(fx, policy, weigher, false);
+    }
+
+    MemoState(Supplier<T> fx, CachePolicy policy) {
+        this(fx, policy, value -> 1);
+    }
+
+    void bind(BaseNode<T> node) {
+        this.node = node;
     }
 
     @Override
     T getValue() {
-        return value.expectPresent(BaseState::panicAbsent).getUnchecked();
+        if (node.hasFlag(BaseNode.Evicted))
+            ReactiveUtil.panic("Read of a memo evicted from its memo family, get it from the family again");
+        var parallel = node.getContext().getRuntime().getParallel();
+        if (parallel != null && parallel.isWorkerThread())
+            return getValueOnWorker(parallel);
+        load();
+        if (softValue != null) {
+            var held = softValue.get();
+            if (held != null) return held;
+            evictions++;
+            return recompute();
+        }
+        if (evicted) {
+            return recompute();
+        }
+        if (policy == CachePolicy.Weighted) {
+            var budget = node.getContext().getRuntime().getBudget();
+            if (budget != null) budget.touch(this);
+        }
+        if (value == null) panicAbsent();
+        return value;
+    }
+
+    /**
+     * Reads the value from a parallel evaluation, which must not touch the state of the runtime.
+     */
+    private T getValueOnWorker(ParallelEvaluator parallel) {
+        // restored values are loaded on the runtime thread
+        if (loader != null)
+            parallel.stale();
+        var held = softValue != null ? softValue.get() : value;
+        if (held == null || evicted)
+            parallel.stale();
+        return held;
     }
 
     @Override
     <U> U withValue(@NotNull Function<T, U> action) {
-        return value.expectPresent(BaseState::panicAbsent).withUnchecked(action);
+        return action.apply(getValue());
     }
 
     @Override
@@ -36,17 +134,143 @@ class MemoState<T> extends BaseState<T> {
         return true;
     }
 
+    @Override
+    boolean isReleasable() {
+        return policy == CachePolicy.Cold;
+    }
+
+    @Override
+    boolean isPure() {
+        return pure;
+    }
+
+    @Override
+    Maybe<T> snapshotValue() {
+        load();
+        return evicted ? Maybe.nothing() : peek();
+    }
+
+    @Override
+    T peekValue() {
+        if (loader != null || evicted) return null;
+        return softValue != null ? softValue.get() : value;
+    }
+
+    @Override
+    void restore(@NotNull Supplier<T> loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    void release() {
+        loader = null;
+        value = null;
+        softValue = null;
+        witness = null;
+        evicted = false;
+        dispose();
+    }
+
+    @Override
+    void dispose() {
+        var budget = node.getContext().getRuntime().getBudget();
+        if (budget != null) budget.remove(this);
+    }
+
+    /**
+     * Drops the value to free memory. The sources of the memo stay intact,
+     * and the value is recomputed on the next read.
+     */
+    void evict() {
+        load();
+        if (value == null) return;
+        witness = new WeakReference<>(value);
+        value = null;
+        evicted = true;
+        evictions++;
+    }
+
+    CacheStats getStats() {
+        return new CacheStats(policy, evictions, recomputes);
+    }
+
+    Supplier<T> getFunction() {
+        return function;
+    }
+
     @Override
     boolean run(@NotNull Runtime runtime, @NotNull BaseNode<T> node) {
-        Maybe<T> oldValue = value.take();
-        T newValue = function.get();
-        value.set(newValue);
-        return !value.equals(oldValue);
+        // a link evaluated on its own is no longer evaluated inline by its consumer
+        if (function instanceof MemoLink<?, T> link)
+            link.split();
+        return commit(function.get());
+    }
+
+    /**
+     * Evaluates the function without storing the result, for parallel evaluation.
+     */
+    T compute() {
+        return function.get();
+    }
+
+    /**
+     * Stores a new value, and returns true if it differs from the previous one.
+     * A previous value that was evicted and collected, or softly held and cleared, cannot be compared and counts as changed.
+     */
+    boolean commit(T newValue) {
+        load();
+        var oldValue = evicted ? witness.get() : peekValue();
+        // evicted and soft values are never null, so a missing one was collected
+        var unknown = oldValue == null && (evicted || softValue != null);
+        store(newValue);
+        return unknown || !Objects.equals(peekValue(), oldValue);
+    }
+
+    /**
+     * Returns the cached value without recomputing it, or nothing if it was evicted.
+     */
+    private Maybe<T> peek() {
+        if (softValue != null) return Maybe.just(softValue.get());
+        return Maybe.just(value);
+    }
+
+    /**
+     * Recomputes an evicted value. The sources did not change, so subscribers are not notified.
+     */
+    private T recompute() {
+        var newValue = node.getContext().getRuntime().withObserver(node, function);
+        recomputes++;
+        store(newValue);
+        return newValue;
+    }
+
+    @Override
+    void load() {
+        var pending = loader;
+        if (pending == null) return;
+        store(pending.get());
+        loader = null;
+    }
+
+    private void store(T newValue) {
+        evicted = false;
+        witness = null;
+        if (policy == CachePolicy.Soft && newValue != null) {
+            softValue = new SoftReference<>(newValue);
+            value = null;
+            return;
+        }
+        softValue = null;
+        value = newValue;
+        if (policy == CachePolicy.Weighted) {
+            var budget = node.getContext().getRuntime().getBudget();
+            if (budget != null) budget.charge(this, weigher.applyAsLong(newValue));
+        }
     }
 
     @Override
     public String toString() {
-        return String.format("MemoState(%s)", value);
+        return String.format("MemoState(%s)", softValue != null ? "soft" : value);
     }
 
 }
@@ -0,0 +1,166 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publisher of the changes of a reactive node.
+ * <p> Each subscription watches the node on the runtime thread, and only keeps the latest value.
+ * Values are emitted on the given executor, as far as the subscriber requested them,
+ * so a slow subscriber skips intermediate values instead of stalling the runtime. </p>
+ * <p> The current value of the node is emitted first. Disposing the node completes all subscriptions. </p>
+ *
+ * @param <T> type of the node value
+ */
+class NodePublisher<T> implements Flow.Publisher<T> {
+
+    private final Context context;
+
+    private final BaseNode<T> source;
+
+    private final Executor executor;
+
+    NodePublisher(Context cx, BaseNode<T> source, Executor executor) {
+        context = cx;
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        var subscription = new NodeSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        context.doWith(runtime -> {
+            if (subscription.cancelled) return;
+            runtime.updateIfNecessary(source);
+            subscription.offer(source.getValue());
+            subscription.watch = WatchEffect.create(context, source, (value, old) -> subscription.offer(value));
+            runtime.addCleanup(source, subscription.cleanup);
+        });
+    }
+
+    private final class NodeSubscription implements Flow.Subscription {
+
+        private static final Object Empty = new Object();
+
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * Latest value not yet emitted, or {@link #Empty}.
+         */
+        private final AtomicReference<Object> latest = new AtomicReference<>(Empty);
+
+        /**
+         * Number of pending drain requests. Only one drain loop runs at a time.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled = false;
+
+        private volatile boolean completed = false;
+
+        private volatile Throwable error;
+
+        /**
+         * Watch on the source node. Only touched on the runtime thread.
+         */
+        private Handle watch;
+
+        /**
+         * Completes the subscription when the source is disposed. Removed again on cancellation.
+         */
+        private final Runnable cleanup = this::complete;
+
+        NodeSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non-positive subscription request: " + n);
+            } else {
+                requested.getAndAccumulate(n, (current, add) -> {
+                    var sum = current + add;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            context.doWith(runtime -> {
+                if (watch == null) return;
+                watch.dispose();
+                runtime.removeCleanup(source, cleanup);
+            });
+        }
+
+        void offer(T value) {
+            // null values cannot be emitted through a flow
+            if (value == null) return;
+            latest.set(value);
+            drain();
+        }
+
+        void complete() {
+            completed = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(this::drainLoop);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drainLoop() {
+            int missed = 1;
+            do {
+                if (cancelled) return;
+                if (error != null) {
+                    cancel();
+                    subscriber.onError(error);
+                    return;
+                }
+                while (requested.get() > 0) {
+                    var value = latest.getAndSet(Empty);
+                    if (value == Empty) break;
+                    if (!emit((T) value)) return;
+                    if (requested.get() != Long.MAX_VALUE) requested.decrementAndGet();
+                }
+                if (completed && latest.get() == Empty) {
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean emit(@NotNull T value) {
+            try {
+                subscriber.onNext(value);
+                return !cancelled;
+            } catch (Throwable e) {
+                cancel();
+                subscriber.onError(e);
+                return false;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package reactives4j.core;
+
+import java.io.Serial;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Evaluates independent pure memos concurrently on a work-stealing pool.
+ * <p> Before effects run, the pure memos waiting for an update are grouped into topological levels,
+ * such that no memo depends on another memo of the same level. Levels are processed in order:
+ * the memos of a level that need an update are evaluated concurrently,
+ * and their results are committed back on the runtime thread. Effects stay sequential. </p>
+ * <p> Evaluations do not track their reads, so pure memos keep the sources they had when last evaluated sequentially.
+ * A read of a node that is not up-to-date aborts the evaluation,
+ * and the memo is then evaluated sequentially on the runtime thread. </p>
+ */
+class ParallelEvaluator {
+
+    /**
+     * Evaluator that the current worker thread evaluates for.
+     */
+    private static final ThreadLocal<ParallelEvaluator> worker = new ThreadLocal<>();
+
+    /**
+     * Thrown to abort stale evaluations. Shared, since it carries neither a stack trace nor suppressed exceptions.
+     */
+    private static final StaleReadException Stale = new StaleReadException();
+
+    private final Runtime runtime;
+
+    private final ForkJoinPool pool;
+
+    ParallelEvaluator(Runtime runtime, ForkJoinPool pool) {
+        this.runtime = runtime;
+        this.pool = pool;
+    }
+
+    boolean isWorkerThread() {
+        return worker.get() == this;
+    }
+
+    /**
+     * Aborts a parallel evaluation that read a node that is not up-to-date.
+     */
+    void checkClean(BaseNode<?> node) {
+        if (node.getStatus() != NodeStatus.Clean)
+            stale();
+    }
+
+    void stale() {
+        throw Stale;
+    }
+
+    void evaluate(Collection<BaseNode<?>> pending) {
+        var candidates = new HashSet<BaseNode<?>>();
+        for (var node : pending) {
+            if (node.getState().isPure() && node.getStatus() != NodeStatus.Clean)
+                candidates.add(node);
+        }
+        if (candidates.size() < 2) return;
+
+        for (var level : levels(candidates)) {
+            var dirty = new ArrayList<BaseNode<?>>();
+            for (var node : level) {
+                if (checkSources(node)) {
+                    dirty.add(node);
+                } else {
+                    runtime.markClean(node);
+                }
+            }
+            if (dirty.size() == 1) {
+                runtime.update(dirty.get(0));
+            } else if (!dirty.isEmpty()) {
+                evaluateLevel(dirty);
+            }
+        }
+    }
+
+    /**
+     * Brings the sources of the node up-to-date, and returns true if the node needs an update.
+     */
+    private boolean checkSources(BaseNode<?> node) {
+        if (node.isCheck()) {
+            for (var source : runtime.getSources().getOrDefault(node, Set.of())) {
+                runtime.updateIfNecessary(source);
+                if (node.isDirtyOrMarked()) break;
+            }
+        }
+        return node.isDirtyOrMarked();
+    }
+
+    private void evaluateLevel(List<BaseNode<?>> nodes) {
+        // restored values are loaded lazily, so the sources are loaded before workers read them
+        for (var node : nodes) {
+            for (var source : runtime.getSources().getOrDefault(node, Set.of())) {
+                source.getState().load();
+            }
+        }
+        var tasks = new ArrayList<ForkJoinTask<Object>>(nodes.size());
+        for (var node : nodes) {
+            var state = (MemoState<?>) node.getState();
+            tasks.add(pool.submit(() -> {
+                worker.set(this);
+                try {
+                    return state.compute();
+                } finally {
+                    worker.remove();
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < nodes.size(); i++) {
+                var node = nodes.get(i);
+                try {
+                    var result = tasks.get(i).get();
+                    runtime.commit(node, commit(node, result));
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof StaleReadException))
+                        throw new ReactiveException(e.getCause());
+                    runtime.update(node);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ReactiveException(e);
+                }
+            }
+        } finally {
+            // evaluations still running would read the runtime while it moves on after a failure
+            for (var task : tasks) {
+                task.quietlyJoin();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> boolean commit(BaseNode<T> node, Object value) {
+        return ((MemoState<T>) node.getState()).commit((T) value);
+    }
+
+    /**
+     * Groups the candidates into topological levels, considering only the edges between candidates.
+     */
+    private List<List<BaseNode<?>>> levels(Set<BaseNode<?>> candidates) {
+        var depths = new HashMap<BaseNode<?>, Integer>();
+        var levels = new ArrayList<List<BaseNode<?>>>();
+        for (var node : candidates) {
+            var depth = depth(node, candidates, depths);
+            while (levels.size() <= depth) levels.add(new ArrayList<>());
+            levels.get(depth).add(node);
+        }
+        return levels;
+    }
+
+    private int depth(BaseNode<?> node, Set<BaseNode<?>> candidates, Map<BaseNode<?>, Integer> depths) {
+        var known = depths.get(node);
+        if (known != null) return known;
+        int depth = 0;
+        for (var source : runtime.getSources().getOrDefault(node, Set.of())) {
+            if (candidates.contains(source))
+                depth = Math.max(depth, depth(source, candidates, depths) + 1);
+        }
+        depths.put(node, depth);
+        return depth;
+    }
+
+    /**
+     * Thrown on a worker thread when a parallel evaluation reads a node that is not up-to-date.
+     */
+    private static class StaleReadException extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        StaleReadException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+/**
+ * View of the values of a context at a published version, readable from any thread until it is closed.
+ * <p> Reads never wait for the runtime thread: they walk the version chains of the nodes, so a reader walking
+ * many nodes sees a single committed propagation state while writes continue. Values must be immutable for
+ * the view to stay consistent, and reads are not tracked. A node created after the version, or without a value
+ * at the version, such as a memo that was never evaluated, cannot be read. </p>
+ * <p> Closing the view lets the runtime reclaim the versions that no other view pins. </p>
+ *
+ * @see Context#pin()
+ */
+public final class PinnedView implements AutoCloseable {
+
+    private final Context cx;
+
+    private final VersionStore store;
+
+    private final long version;
+
+    private volatile boolean closed = false;
+
+    PinnedView(Context cx, VersionStore store, long version) {
+        this.cx = cx;
+        this.store = store;
+        this.version = version;
+    }
+
+    /**
+     * Returns the pinned version, the runtime clock of its propagation.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public <T> T get(@NotNull Reactive<T> node) {
+        return value(node);
+    }
+
+    public <T> T get(@NotNull Memo<T> node) {
+        return value(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T value(BaseNode<T> node) {
+        return (T) read(node);
+    }
+
+    /**
+     * Returns the value of the given node at the pinned version, such as a field of a reactive model.
+     */
+    Object read(BaseNode<?> node) {
+        if (closed)
+            ReactiveUtil.panic("Pinned view used after it was closed");
+        if (node.getContext() != cx)
+            ReactiveUtil.panic("Node read from the view of another context");
+        var value = store.read(node, version);
+        if (value == null)
+            ReactiveUtil.panic("Node has no value at version " + version);
+        return value;
+    }
+
+    /**
+     * Unpins the version of the view. Reading the view afterwards is an error.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        store.unpin(cx, this);
+    }
+
+}
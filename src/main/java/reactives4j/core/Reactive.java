@@ -1,5 +1,9 @@
 package reactives4j.core;
 
+import reactives4j.maybe.Maybe;
+import reactives4j.util.ReactiveUtil;
+
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -89,4 +93,79 @@ public class Reactive<T> extends BaseNode<T> {
         modifyNodeUntracked(action);
     }
 
+    /*
+     * History: recent values of this reactive, kept only once enabled
+     */
+
+    /**
+     * Starts recording the last {@code capacity} values of this reactive, starting with the current value.
+     * Values are recorded by reference, so values mutated in place by {@link #modify(Consumer)} are not preserved.
+     */
+    public void enableHistory(int capacity) {
+        if (capacity < 1)
+            ReactiveUtil.panic("History capacity must be positive");
+        getContext().with(runtime -> {
+            historyState().enableHistory(capacity, runtime.getClock());
+        });
+    }
+
+    /**
+     * Stops recording values and drops the recorded ones.
+     */
+    public void disableHistory() {
+        getContext().with(runtime -> {
+            historyState().disableHistory();
+        });
+    }
+
+    /**
+     * Returns the recorded values, oldest first.
+     */
+    public List<HistoryEntry<T>> getHistory() {
+        return getContext().with(runtime -> {
+            return history().entries();
+        });
+    }
+
+    /**
+     * Returns the value of this reactive the given number of writes ago, zero being the current value,
+     * or nothing if it is no longer recorded.
+     */
+    public Maybe<T> getValueAgo(int writes) {
+        return getContext().with(runtime -> {
+            var history = history();
+            if (writes < 0 || writes >= history.size()) return Maybe.<T>nothing();
+            return Maybe.just(history.valueAgo(writes));
+        });
+    }
+
+    /**
+     * Restores the value this reactive had at the given version, which is propagated as a normal write.
+     * The version is looked up synchronously, so that a version that is no longer recorded fails the caller.
+     *
+     * @param version runtime clock at which to read the value
+     * @see HistoryEntry#version()
+     */
+    public void rollback(long version) {
+        var value = getContext().with(runtime -> {
+            var history = history();
+            var index = history.find(version);
+            if (index < 0)
+                ReactiveUtil.panic("Version " + version + " is no longer recorded");
+            return history.valueAgo(index);
+        });
+        setNode(value);
+    }
+
+    private ReactiveState<T> historyState() {
+        return (ReactiveState<T>) getState();
+    }
+
+    private ValueHistory<T> history() {
+        var history = historyState().getHistory();
+        if (history == null)
+            ReactiveUtil.panic("History not enabled");
+        return history;
+    }
+
 }
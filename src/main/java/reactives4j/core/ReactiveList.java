@@ -0,0 +1,120 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Mutable reactive list, the source of incremental collection views.
+ * <p> Each write is applied on the runtime thread as a single delta,
+ * which is propagated to all derived views before effects run. </p>
+ *
+ * @param <T> type of the elements
+ * @see Context#list(Collection)
+ */
+public class ReactiveList<T> extends ListView<T> {
+
+    private final IndexedTree<T> tree = new IndexedTree<>();
+
+    private ReactiveList(Context cx, Collection<? extends T> values) {
+        super(cx);
+        for (var value : values) {
+            tree.insert(tree.size(), value, 1);
+        }
+    }
+
+    static <T> ReactiveList<T> create(Context cx, Collection<? extends T> values) {
+        return cx.with(runtime -> {
+            return new ReactiveList<T>(cx, values);
+        });
+    }
+
+    public void add(T value) {
+        write(() -> List.of(insert(tree.size(), value)));
+    }
+
+    public void add(int index, T value) {
+        write(() -> {
+            Objects.checkIndex(index, tree.size() + 1);
+            return List.of(insert(index, value));
+        });
+    }
+
+    public void addAll(@NotNull Collection<? extends T> values) {
+        var copy = List.copyOf(values);
+        write(() -> {
+            var changes = new ArrayList<ListChange<T>>(copy.size());
+            for (var value : copy) {
+                changes.add(insert(tree.size(), value));
+            }
+            return changes;
+        });
+    }
+
+    public void set(int index, T value) {
+        write(() -> List.of(replace(index, value)));
+    }
+
+    public void update(int index, @NotNull Function<T, T> updater) {
+        write(() -> List.of(replace(index, updater.apply(tree.node(index).value))));
+    }
+
+    public void remove(int index) {
+        write(() -> List.of(delete(index)));
+    }
+
+    public void clear() {
+        write(() -> {
+            var changes = new ArrayList<ListChange<T>>(tree.size());
+            for (int i = tree.size() - 1; i >= 0; i--) {
+                changes.add(delete(i));
+            }
+            return changes;
+        });
+    }
+
+    @Override
+    T read(int index) {
+        return tree.node(index).value;
+    }
+
+    @Override
+    int count() {
+        return tree.size();
+    }
+
+    @Override
+    List<T> values() {
+        return tree.values(false);
+    }
+
+    private void write(Supplier<List<ListChange<T>>> action) {
+        getContext().doWith(runtime -> {
+            runtime.batch(() -> emit(runtime, action.get()));
+        });
+    }
+
+    private ListChange<T> insert(int index, T value) {
+        tree.insert(index, value, 1);
+        return ListChange.insert(index, value);
+    }
+
+    private ListChange<T> replace(int index, T value) {
+        var node = tree.node(index);
+        var oldValue = node.value;
+        node.value = value;
+        return ListChange.update(index, value, oldValue);
+    }
+
+    private ListChange<T> delete(int index) {
+        var node = tree.node(index);
+        tree.remove(node);
+        return ListChange.remove(index, node.value);
+    }
+
+}
@@ -0,0 +1,36 @@
+package reactives4j.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose instance fields describe a reactive model.
+ * <p> The {@code reactives4j-processor} annotation processor generates a {@link ReactiveObject} subclass
+ * in the same package, holding the same fields unboxed, with tracked getters, setters, and a bulk
+ * {@code update} method that applies all of its writes as a single batch. </p>
+ * <pre>{@code
+ * @ReactiveModel
+ * class Point {
+ *     int x;
+ *     int y;
+ * }
+ *
+ * var point = new PointModel(cx, 1, 2);
+ * point.update(p -> {
+ *     p.setX(3);
+ *     p.setY(4);
+ * });
+ * }</pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface ReactiveModel {
+
+    /**
+     * Simple name of the generated class. Defaults to the name of the annotated class followed by {@code Model}.
+     */
+    String name() default "";
+
+}
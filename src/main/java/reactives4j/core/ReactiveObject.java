@@ -0,0 +1,125 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base class of the reactive models generated from {@link ReactiveModel} classes.
+ * <p> Field values are held by the subclass as plain fields, and every field is tracked by a single
+ * node slot, so reading a field is a subscription to its slot, and writing a field
+ * commits and triggers its slot only if the value changed. Slots expose the values of their fields,
+ * so the writes of a model are journaled, published and versioned like the writes of reactive values. </p>
+ * <p> On the runtime thread fields are accessed directly. From other threads, reads block until the read
+ * is tracked by the runtime, and writes are submitted to the runtime queue. </p>
+ */
+public abstract class ReactiveObject implements Handle {
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    /**
+     * Node slots of the fields, created by {@link #initialized()}.
+     */
+    private final Trigger[] slots;
+
+    protected ReactiveObject(@NotNull Context cx, int fields) {
+        context = cx;
+        slots = new Trigger[fields];
+    }
+
+    /**
+     * Returns the current value of the given field, boxed. Called on the runtime thread.
+     */
+    protected abstract Object readField(int field);
+
+    /**
+     * Sets the given field without triggering its observers, such as when a journal is replayed.
+     * Called on the runtime thread.
+     */
+    protected abstract void writeField(int field, Object value);
+
+    /**
+     * Creates the slots of the fields, and versions their initial values. Called at the end of the constructors
+     * of the subclass, once the fields are assigned, so that the model is only handed to the runtime once complete.
+     */
+    protected final void initialized() {
+        context.with(runtime -> {
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Trigger(context, new FieldState(this, i));
+                runtime.addNode(slots[i]);
+            }
+            if (runtime.versions == null) return;
+            for (var slot : slots) {
+                runtime.claimVersion(slot);
+            }
+        });
+    }
+
+    /**
+     * Returns the value of the given field at the version of the given view.
+     *
+     * @see Context#pin()
+     */
+    protected final Object pinned(@NotNull PinnedView view, int field) {
+        return view.read(slots[field]);
+    }
+
+    /**
+     * Returns true if the fields can be accessed directly from the current thread.
+     */
+    protected final boolean isOwner() {
+        return context.isReactiveThread() || context.isSynced();
+    }
+
+    /**
+     * Tracks a read of the given field. Off the runtime thread, blocks until the read is tracked,
+     * so that the writes of the runtime thread are visible to the caller.
+     */
+    protected final void track(int field) {
+        var slot = slots[field];
+        if (isOwner()) {
+            slot.track(context.getRuntime());
+        } else {
+            context.with(slot::track);
+        }
+    }
+
+    /**
+     * Commits the write of the given field and triggers its observers. Called on the runtime thread,
+     * once the field changed.
+     */
+    protected final void changed(int field) {
+        var runtime = context.getRuntime();
+        runtime.commitWrite(slots[field]);
+        slots[field].trigger(runtime);
+    }
+
+    /**
+     * Runs the given write on the runtime thread.
+     */
+    protected final void write(@NotNull Runnable action) {
+        context.doWith(runtime -> {
+            action.run();
+        });
+    }
+
+    /**
+     * Runs the given writes on the runtime thread as a single batch.
+     */
+    protected final void batch(@NotNull Runnable changes) {
+        context.doWith(runtime -> {
+            runtime.batch(changes);
+        });
+    }
+
+    @Override
+    public void dispose() {
+        context.with(runtime -> {
+            for (var slot : slots) {
+                runtime.disposeNode(slot);
+            }
+        });
+    }
+
+}
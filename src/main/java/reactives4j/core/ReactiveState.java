@@ -5,43 +5,123 @@ import reactives4j.maybe.Maybe;
 
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 class ReactiveState<T> extends BaseState<T> {
 
-    private final Maybe<T> value = Maybe.nothing();
+    /**
+     * Value held inline, null if absent.
+     */
+    private T value;
+
+    /**
+     * Loader of a value restored from a snapshot, until the value is first read.
+     * Cleared once the value is stored, so that parallel evaluations reading it as null see the value.
+     */
+    private volatile Supplier<T> loader;
+
+    /**
+     * Recent values of the reactive value, or null if its history is disabled.
+     */
+    private ValueHistory<T> history;
 
     ReactiveState(T val) {
-        value.set(val);
+        value = val;
+    }
+
+    @Override
+    void load() {
+        if (loader == null) return;
+        synchronized (this) {
+            var pending = loader;
+            if (pending == null) return;
+            value = pending.get();
+            loader = null;
+        }
+    }
+
+    /**
+     * Returns the value, loading it first if it was restored.
+     */
+    private T present() {
+        if (loader != null) load();
+        if (value == null) panicAbsent();
+        return value;
     }
 
     @Override
     T getValue() {
-        return value.expectPresent(BaseState::panicAbsent).getUnchecked();
+        return present();
     }
 
     @Override
     void setValue(@NotNull T newValue) {
-        value.set(newValue);
+        value = newValue;
+        loader = null;
+    }
+
+    @Override
+    boolean isWritable() {
+        return true;
     }
 
     @Override
     <U> U withValue(@NotNull Function<T, U> action) {
-        return value.expectPresent(BaseState::panicAbsent).withUnchecked(action);
+        return action.apply(present());
     }
 
     @Override
     void doWithValue(@NotNull Consumer<T> action) {
-        value.expectPresent(BaseState::panicAbsent).doWithUnchecked(action);
+        action.accept(present());
     }
 
     @Override
     void updateValue(@NotNull Function<T, T> updater) {
-        value.expectPresent(BaseState::panicAbsent).updateUnchecked(updater);
+        value = updater.apply(present());
     }
 
     @Override
     void modifyValue(@NotNull Consumer<T> action) {
-        value.expectPresent(BaseState::panicAbsent).doWithUnchecked(action);
+        action.accept(present());
+    }
+
+    @Override
+    Maybe<T> snapshotValue() {
+        load();
+        return Maybe.just(value);
+    }
+
+    @Override
+    void committed(long version) {
+        if (history != null)
+            history.add(version, peekValue());
+    }
+
+    ValueHistory<T> getHistory() {
+        return history;
+    }
+
+    /**
+     * Starts recording the values of the reactive value, with the current value as the first entry.
+     */
+    void enableHistory(int capacity, long version) {
+        load();
+        history = new ValueHistory<>(capacity);
+        history.add(version, value);
+    }
+
+    void disableHistory() {
+        history = null;
+    }
+
+    @Override
+    T peekValue() {
+        return loader != null ? null : value;
+    }
+
+    @Override
+    void restore(@NotNull Supplier<T> loader) {
+        this.loader = loader;
     }
 
     @Override
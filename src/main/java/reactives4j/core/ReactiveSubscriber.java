@@ -0,0 +1,153 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+/**
+ * Subscriber that feeds the elements of a publisher, or of any producer thread, into a reactive value.
+ * <p> Elements are folded together with the reducer as they arrive, and the folded result is applied
+ * to the reactive value once per runtime turn. The ingest rate is therefore decoupled from the propagation rate:
+ * however many elements arrive between two turns, downstream nodes are only updated once. </p>
+ * <p> Elements are requested from the publisher in batches of the given size.
+ * The reducer must be associative, and may be called concurrently by producer threads.
+ * Subscribers need a runtime service applying the elements on the runtime thread, so synced contexts reject them. </p>
+ *
+ * @param <T> type of the elements
+ * @see Context#fromPublisher(Flow.Publisher, Object, int, BinaryOperator)
+ */
+public class ReactiveSubscriber<T> implements Flow.Subscriber<T>, Handle {
+
+    private static final Object Empty = new Object();
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    private final Reactive<T> value;
+
+    private final Reactive<Boolean> done;
+
+    private final BinaryOperator<T> reducer;
+
+    private final int batchSize;
+
+    /**
+     * Elements folded since the last runtime turn, or {@link #Empty}.
+     */
+    private final AtomicReference<Object> pending = new AtomicReference<>(Empty);
+
+    /**
+     * Whether a runtime turn applying the pending elements is already scheduled.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * Elements received from the current batch. Only touched by the publisher, which signals serially.
+     */
+    private int received = 0;
+
+    @Getter(AccessLevel.PUBLIC)
+    private volatile Throwable error;
+
+    ReactiveSubscriber(Context cx, T initialValue, int batchSize, BinaryOperator<T> reducer) {
+        if (batchSize < 1)
+            ReactiveUtil.panic("Batch size of a subscriber must be positive");
+        cx.checkService("producer threads");
+        context = cx;
+        this.batchSize = batchSize;
+        this.reducer = reducer;
+        value = cx.reactive(initialValue);
+        done = cx.reactive(false);
+    }
+
+    /**
+     * Returns the reactive value fed by this subscriber.
+     */
+    public Reactive<T> value() {
+        return value;
+    }
+
+    /**
+     * Returns a reactive value that turns true once the publisher completed or failed.
+     */
+    public Reactive<Boolean> done() {
+        return done;
+    }
+
+    /**
+     * Offers an element from a producer thread, without a publisher.
+     * The element is folded into the pending elements and applied on the next runtime turn.
+     */
+    public void offer(@NotNull T item) {
+        pending.accumulateAndGet(item, this::fold);
+        schedule();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(T item) {
+        offer(item);
+        if (++received == batchSize) {
+            received = 0;
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        context.doWith(runtime -> done.set(true));
+    }
+
+    @Override
+    public void onComplete() {
+        context.doWith(runtime -> done.set(true));
+    }
+
+    /**
+     * Cancels the subscription to the publisher. The reactive value keeps its latest value.
+     */
+    @Override
+    public void dispose() {
+        var current = subscription;
+        if (current != null) current.cancel();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object fold(Object accumulated, Object item) {
+        if (accumulated == Empty) return item;
+        return reducer.apply((T) accumulated, (T) item);
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            context.doWith(this::apply);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(Runtime runtime) {
+        // clear the flag first, so that elements arriving from now on schedule another turn
+        scheduled.set(false);
+        var folded = pending.getAndSet(Empty);
+        if (folded == Empty) return;
+        value.update(current -> reducer.apply(current, (T) folded));
+    }
+
+}
@@ -0,0 +1,63 @@
+package reactives4j.core;
+
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+import java.util.function.Function;
+
+/**
+ * Consistent view of the values of a context, valid for the duration of a single {@link Context#read(Function)}.
+ * <p> All the reads of a view happen within one task of the runtime thread, so the values are taken
+ * from the same propagation state, identified by {@link #getVersion()}. Memos are brought up to date on read.
+ * Reads are not tracked, even when the view is used inside a reactive closure. </p>
+ */
+public final class ReadView {
+
+    private final Runtime runtime;
+
+    private final long version;
+
+    private boolean closed = false;
+
+    private ReadView(Runtime runtime) {
+        this.runtime = runtime;
+        version = runtime.getClock();
+    }
+
+    /**
+     * Runs the reader on a view of the given runtime. Called on the runtime thread.
+     */
+    static <R> R read(Runtime runtime, Function<ReadView, R> reader) {
+        var view = new ReadView(runtime);
+        try {
+            return reader.apply(view);
+        } finally {
+            view.closed = true;
+        }
+    }
+
+    /**
+     * Returns the runtime clock of the values of this view.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public <T> T get(@NotNull Reactive<T> node) {
+        return value(node);
+    }
+
+    public <T> T get(@NotNull Memo<T> node) {
+        return value(node);
+    }
+
+    private <T> T value(BaseNode<T> node) {
+        if (closed)
+            ReactiveUtil.panic("Read view used outside of its read");
+        if (node.getContext().getRuntime() != runtime)
+            ReactiveUtil.panic("Node read from the view of another context");
+        runtime.updateIfNecessary(node);
+        return node.getValue();
+    }
+
+}
@@ -3,6 +3,7 @@ package reactives4j.core;
 import lombok.extern.log4j.Log4j2;
 import reactives4j.maybe.MaybeConst;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
@@ -67,6 +68,17 @@ public class Resource<T> {
         return runResource();
     }
 
+    /**
+     * Schedules a fetch of the resource at fixed intervals, on the timing wheel of its context.
+     * Disposing the returned handle stops the refreshes.
+     *
+     * @param period period between fetches, at least 5ms
+     * @return handle to the refresh schedule
+     */
+    public Timeout refreshEvery(Duration period) {
+        return context.getScheduler().scheduleAtFixedRate(period, runtime -> runResource());
+    }
+
     /**
      * Returns a reactive value that indicates whether the resource is still loading.
      */
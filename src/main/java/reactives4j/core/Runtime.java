@@ -5,8 +5,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.Contract;
 import reactives4j.maybe.Maybe;
+import reactives4j.util.ReactiveUtil;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 /**
@@ -69,6 +72,131 @@ public class Runtime {
     @Getter(AccessLevel.PACKAGE)
     final Set<BaseNode<?>> pending = new HashSet<>();
 
+    /**
+     * Traversal stack of {@link #markDirty(BaseNode)}, reused across writes.
+     */
+    private final Deque<Iterator<BaseNode<?>>> markStack = new ArrayDeque<>();
+
+    /**
+     * Releasable nodes that lost their last subscriber, waiting to be released.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    final Set<BaseNode<?>> unobserved = new HashSet<>();
+
+    /**
+     * Budget shared by the weighted memos, or null if their values are never evicted.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    MemoBudget budget;
+
+    /**
+     * Codecs of the node values stored in snapshots.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    final CodecRegistry codecs = new CodecRegistry();
+
+    /**
+     * Snapshot being restored as nodes are created, or null.
+     */
+    Snapshot snapshot;
+
+    /**
+     * Id of the next created node.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private long nextId = 0;
+
+    /**
+     * Logical clock of the runtime, advanced by every write of a reactive value.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private long clock = 0;
+
+    /**
+     * Journal of the writes of reactive values, or null if writes are not journaled.
+     */
+    Journal journal;
+
+    /**
+     * Ring buffer publishing the committed changes to external consumers, or null.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    ChangeFeed feed;
+
+    /**
+     * Multi-version store of the node values read by pinned views, or null if values are not versioned.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    VersionStore versions;
+
+    /**
+     * Flat propagation schedule of the graph, or null if the graph is tracked dynamically.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    FrozenGraph frozen;
+
+    /**
+     * Observers re-running with their frozen edges, innermost last.
+     */
+    private final Deque<BaseNode<?>> rerunning = new ArrayDeque<>();
+
+    /**
+     * Evaluator of independent pure memos on a work-stealing pool, or null if propagation is sequential.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    ParallelEvaluator parallel;
+
+    /**
+     * Depth of nested batches. Effects are deferred until the outermost batch ends.
+     */
+    private int batchDepth = 0;
+
+    /**
+     * Actions publishing the changes accumulated by the current batch, run once it ends, before its effects.
+     */
+    private final List<Runnable> batchEnd = new ArrayList<>();
+
+    /**
+     * Whether the writes of the tasks run so far are deferred until they are flushed.
+     */
+    private boolean deferring = false;
+
+    /**
+     * Whether a flush of the deferred writes is queued behind the submitted tasks.
+     */
+    private boolean flushScheduled = false;
+
+    /**
+     * Time budget of a propagation pass in nanoseconds, or 0 if passes are not sliced.
+     */
+    long flushBudget = 0;
+
+    /**
+     * Executor running the remainder of a sliced propagation pass.
+     */
+    Executor sliceExecutor;
+
+    /**
+     * Whether the remainder of a sliced propagation pass is queued.
+     */
+    private boolean sliceScheduled = false;
+
+    /**
+     * Lanes of the pending subscribers, and latency counters of the lane batches.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    final Lanes lanes = new Lanes();
+
+    /**
+     * Depth of nested node updates.
+     */
+    private int updateDepth = 0;
+
+    /**
+     * Depth of nested propagation passes.
+     */
+    private int passDepth = 0;
+
     /**
      * Creates a new runtime. This should only be called once per thread.
      *
@@ -86,12 +214,37 @@ public class Runtime {
     void update(BaseNode<?> node) {
         // run the computation and get the result
         boolean result;
-        if (node.getState().isObserver()) {
-            result = withObserver(node, () -> node.run(this));
-        } else {
-            result = node.run(this);
+        updateDepth++;
+        try {
+            if (node.getState().isObserver()) {
+                result = withObserver(node, () -> node.run(this));
+            } else {
+                result = node.run(this);
+            }
+        } finally {
+            updateDepth--;
         }
 
+        commit(node, result);
+    }
+
+    /**
+     * Completes the update of a node, once its computation ran.
+     *
+     * @param result whether the value of the node changed
+     */
+    void commit(BaseNode<?> node, boolean result) {
+        // a releasable node read without an observer is released on the next turn
+        if (node.getState().isReleasable() && !hasSubscribers(node)) {
+            unobserved.add(node);
+        }
+
+        // writes of reactive values are claimed as they happen
+        if (result && feed != null && node.isMemo())
+            claimChange(node);
+        if (result && versions != null && node.isMemo())
+            claimVersion(node);
+
         // mark children dirty
         if (result && subscribers.containsKey(node)) {
             subscribers.get(node).forEach(BaseNode::setDirty);
@@ -102,10 +255,22 @@ public class Runtime {
     }
 
     void updateIfNecessary(BaseNode<?> node) {
+        if (parallel != null && parallel.isWorkerThread()) {
+            parallel.checkClean(node);
+            return;
+        }
         if (node.getStatus() == NodeStatus.Check) {
-            for (BaseNode<?> source : sources.get(node)) {
-                updateIfNecessary(source);
-                if (node.isDirtyOrMarked()) break;
+            if (frozen != null && node.slot >= 0) {
+                var graph = frozen;
+                for (int edge = graph.upOffsets[node.slot]; edge < graph.upOffsets[node.slot + 1]; edge++) {
+                    updateIfNecessary(graph.order[graph.upstream[edge]]);
+                    if (node.isDirtyOrMarked()) break;
+                }
+            } else {
+                for (BaseNode<?> source : sources.get(node)) {
+                    updateIfNecessary(source);
+                    if (node.isDirtyOrMarked()) break;
+                }
             }
         }
         if (node.isDirtyOrMarked()) {
@@ -115,17 +280,27 @@ public class Runtime {
     }
 
     void subscribeObserver(BaseNode<?> node) {
-        observer.ifPresent(observer -> {
-            // add this observer to the node's dependencies
-            subscribers.putIfAbsent(node, new HashSet<>());
-            subscribers.get(node).add(observer);
-            // add the node to this observer's sources
-            sources.putIfAbsent(observer, new HashSet<>());
-            sources.get(observer).add(node);
-        });
+        // parallel evaluations keep the sources of their memos
+        if (parallel != null && parallel.isWorkerThread()) return;
+        var current = observer.getUnchecked();
+        if (current == null) return;
+        if (frozen != null) {
+            // a frozen graph only changes when an observer reads a new source, or stops reading one
+            if (sources.getOrDefault(current, Set.of()).contains(node)) {
+                if (!rerunning.isEmpty() && current.slot >= 0 && node.slot >= 0)
+                    frozen.read(current.slot, node.slot);
+                return;
+            }
+            thaw();
+        }
+        // add this observer to the node's dependencies
+        subscribers.computeIfAbsent(node, key -> new HashSet<>()).add(current);
+        // add the node to this observer's sources
+        sources.computeIfAbsent(current, key -> new HashSet<>()).add(node);
     }
 
     void subscribeObserver(BaseNode<?> node, BaseNode<?> observer) {
+        thaw();
         subscribers.putIfAbsent(node, new HashSet<>());
         subscribers.get(node).add(observer);
         sources.putIfAbsent(observer, new HashSet<>());
@@ -133,6 +308,7 @@ public class Runtime {
     }
 
     void addSubscriber(BaseNode<?> node, BaseNode<?> observer) {
+        thaw();
         subscribers.putIfAbsent(node, new HashSet<>());
         subscribers.get(node).add(observer);
     }
@@ -145,9 +321,221 @@ public class Runtime {
         return value;
     }
 
+    /**
+     * Runs the given function as a single batch, so that all of its writes are propagated together.
+     */
+    void batch(Runnable fx) {
+        batchDepth++;
+        try {
+            fx.run();
+        } finally {
+            batchDepth--;
+        }
+        if (batchDepth == 0)
+            runEffects();
+    }
+
+    /**
+     * Runs the given function as a single batch of the given lane.
+     *
+     * @param submittedAt time at which the batch was submitted, from {@link System#nanoTime()}
+     * @param executor    executor resuming preempted passes on the runtime thread, or null
+     */
+    void batch(Lane lane, long submittedAt, Executor executor, Runnable fx) {
+        lanes.begin(lane, submittedAt, executor);
+        var previous = lanes.current;
+        lanes.current = lane;
+        try {
+            batch(fx);
+        } finally {
+            lanes.current = previous;
+        }
+    }
+
+    /**
+     * Runs a task of the runtime service, deferring the propagation of its writes according to the flush policy.
+     * When draining the queue, the flush is itself queued behind the tasks already submitted,
+     * so it runs once they all ran.
+     *
+     * @param service runtime service running the task
+     */
+    <R> R runTask(FlushPolicy policy, Executor service, Supplier<R> task) {
+        if (!deferring) {
+            deferring = true;
+            batchDepth++;
+        }
+        try {
+            return task.get();
+        } finally {
+            if (policy != FlushPolicy.EndOfQueueDrain) {
+                flushDeferred();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                try {
+                    service.execute(this::flushDeferred);
+                } catch (RejectedExecutionException e) {
+                    flushDeferred();
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates the writes deferred by the tasks run so far.
+     */
+    void flushDeferred() {
+        flushScheduled = false;
+        if (!deferring) return;
+        deferring = false;
+        batchDepth--;
+        if (batchDepth == 0)
+            runEffects();
+    }
+
+    boolean isBatching() {
+        return batchDepth > 0;
+    }
+
+    /**
+     * Registers an action run once the outermost batch, or the current propagation pass, ends.
+     * The action runs before the effects of the batch, so the nodes it writes are drained with them.
+     */
+    void onBatchEnd(Runnable action) {
+        batchEnd.add(action);
+    }
+
     void runEffects() {
-        for (BaseNode<?> node : pending) {
-            updateIfNecessary(node);
+        if (!batchEnd.isEmpty()) {
+            var actions = batchEnd.toArray(new Runnable[0]);
+            batchEnd.clear();
+            for (var action : actions) action.run();
+        }
+        passDepth++;
+        try {
+            if (parallel != null)
+                parallel.evaluate(pending);
+            if (frozen != null) {
+                runScheduled(frozen);
+            } else {
+                drainPending();
+            }
+        } finally {
+            passDepth--;
+        }
+        releaseUnobserved();
+        if (lanes.enabled)
+            lanes.flushed(pending.size());
+        publishChanges();
+    }
+
+    /**
+     * Brings the pending nodes up to date, and removes them from the pending set.
+     * Nodes marked while draining are drained by the propagation pass of the write that marked them.
+     * Once lanes are tracked, nodes are drained lane by lane, and each node writes in its own lane.
+     */
+    private void drainPending() {
+        if (pending.isEmpty()) return;
+        var nodes = pending.toArray(new BaseNode<?>[0]);
+        pending.clear();
+        var order = lanes.enabled ? lanes.sort(nodes) : null;
+        var previous = lanes.current;
+        var deadline = flushBudget > 0 ? System.nanoTime() + flushBudget : 0;
+        try {
+            for (int i = 0; i < nodes.length; i++) {
+                if (order != null) {
+                    if (order[i] == Lane.Background && deferBackground()) {
+                        requeue(nodes, order, i);
+                        return;
+                    }
+                    lanes.current = order[i];
+                }
+                updateIfNecessary(nodes[i]);
+                if (deadline != 0 && i + 1 < nodes.length && System.nanoTime() - deadline >= 0) {
+                    // the remaining nodes keep their status, so memos are still evaluated against the latest writes
+                    requeue(nodes, order, i + 1);
+                    scheduleSlice(sliceExecutor);
+                    return;
+                }
+            }
+        } finally {
+            lanes.current = previous;
+        }
+    }
+
+    /**
+     * Adds the nodes from the given index back to the pending set, in their lanes.
+     */
+    private void requeue(BaseNode<?>[] nodes, Lane[] order, int from) {
+        for (int i = from; i < nodes.length; i++) {
+            var added = pending.add(nodes[i]);
+            if (order != null)
+                lanes.mark(nodes[i], order[i], added);
+        }
+    }
+
+    /**
+     * Returns whether the background nodes are left to a later pass, either because one is already queued,
+     * or because an urgent batch is waiting, in which case the pass is preempted and resumed behind it.
+     */
+    private boolean deferBackground() {
+        if (sliceScheduled) return true;
+        if (lanes.urgentWaiting.get() == 0) return false;
+        var executor = sliceExecutor != null ? sliceExecutor : lanes.executor;
+        if (executor == null) return false;
+        scheduleSlice(executor);
+        if (sliceScheduled)
+            lanes.preempted(Lane.Background);
+        return sliceScheduled;
+    }
+
+    /**
+     * Queues the remainder of a sliced propagation pass, letting the tasks submitted in between run first.
+     */
+    private void scheduleSlice(Executor executor) {
+        if (sliceScheduled) return;
+        sliceScheduled = true;
+        try {
+            executor.execute(() -> {
+                sliceScheduled = false;
+                runEffects();
+            });
+        } catch (RejectedExecutionException e) {
+            sliceScheduled = false;
+        }
+    }
+
+    /**
+     * Rejects the writes made by a parallel evaluation, which must not touch the state of the runtime.
+     */
+    void checkWrite() {
+        if (parallel != null && parallel.isWorkerThread())
+            ReactiveUtil.panic("Pure memos cannot write during a parallel evaluation");
+    }
+
+    boolean hasSubscribers(BaseNode<?> node) {
+        var children = subscribers.get(node);
+        return children != null && !children.isEmpty();
+    }
+
+    /**
+     * Releases the releasable nodes that have no subscribers left, along with their sources.
+     * Deferred while a node is being updated, since an observer re-subscribes to its sources as it runs.
+     */
+    void releaseUnobserved() {
+        if (updateDepth > 0) return;
+        while (!unobserved.isEmpty()) {
+            var iter = unobserved.iterator();
+            var node = iter.next();
+            iter.remove();
+            if (hasSubscribers(node)) continue;
+            cleanupSources(node);
+            sources.remove(node);
+            pending.remove(node);
+            lanes.marked.remove(node);
+            node.getState().release();
+            node.setDirty();
+            if (versions != null)
+                versions.claim(node);
         }
     }
 
@@ -160,14 +548,22 @@ public class Runtime {
     }
 
     void markDirty(BaseNode<?> node) {
+        checkWrite();
+        releaseUnobserved();
         if (node.isMarked()) return;
         mark(node, NodeStatus.Dirty);
+        if (frozen != null && node.slot >= 0) {
+            markFrozen(frozen, node.slot);
+            return;
+        }
+
+        // writes of unobserved nodes stop here, without allocating the traversal
+        var direct = subscribers.get(node);
+        if (direct == null || direct.isEmpty()) return;
 
         // Prepare the stack for DAG traversal
-        Stack<Iterator<BaseNode<?>>> stack = new Stack<>();
-        if (subscribers.containsKey(node)) {
-            stack.push(subscribers.get(node).iterator());
-        }
+        var stack = markStack;
+        stack.push(direct.iterator());
 
         outer:
         while (!stack.isEmpty()) {
@@ -202,13 +598,152 @@ public class Runtime {
         }
     }
 
+    /**
+     * Marks the nodes downstream of the given slot by following the frozen schedule.
+     * Each slot is visited once, including the slots of nodes that were already dirty.
+     */
+    private void markFrozen(FrozenGraph graph, int slot) {
+        var queue = graph.queue;
+        var visited = graph.visited;
+        int head = 0, tail = 0;
+        queue[tail++] = slot;
+        visited.set(slot);
+        while (head < tail) {
+            var current = queue[head++];
+            for (int edge = graph.downOffsets[current]; edge < graph.downOffsets[current + 1]; edge++) {
+                var childSlot = graph.downstream[edge];
+                if (visited.get(childSlot)) continue;
+                var child = graph.order[childSlot];
+                if (child.isCheck() || child.isMarked()) continue;
+                mark(child, NodeStatus.Check);
+                if (child.getState().isSubscriber()) graph.scheduled.set(childSlot);
+                visited.set(childSlot);
+                queue[tail++] = childSlot;
+            }
+        }
+        for (int i = 0; i < tail; i++) {
+            visited.clear(queue[i]);
+        }
+    }
+
+    /**
+     * Runs the scheduled subscribers of a frozen graph in topological order.
+     * Once subscribers are pending in other lanes than the default one, they run lane by lane,
+     * and the background lane may be preempted as in {@link #drainPending()}.
+     */
+    private void runScheduled(FrozenGraph graph) {
+        if (lanes.enabled && !lanes.marked.isEmpty()) {
+            runScheduledLanes(graph);
+            return;
+        }
+        var scheduled = graph.scheduled;
+        for (int slot = scheduled.nextSetBit(0); slot >= 0; slot = scheduled.nextSetBit(slot + 1)) {
+            scheduled.clear(slot);
+            updateIfNecessary(graph.order[slot]);
+            // the graph thawed while running a subscriber, so the rest runs dynamically
+            if (frozen != graph) {
+                scheduled.clear();
+                drainPending();
+                return;
+            }
+        }
+        // every pending node has a slot in the frozen schedule
+        pending.clear();
+        lanes.marked.clear();
+    }
+
+    /**
+     * Runs the scheduled subscribers of a frozen graph lane by lane, in topological order within a lane.
+     * Subscribers left to a later pass stay scheduled and pending in their lane.
+     */
+    private void runScheduledLanes(FrozenGraph graph) {
+        var scheduled = graph.scheduled;
+        var previous = lanes.current;
+        try {
+            for (var lane : Lane.values()) {
+                for (int slot = scheduled.nextSetBit(0); slot >= 0; slot = scheduled.nextSetBit(slot + 1)) {
+                    var node = graph.order[slot];
+                    if (lanes.laneOf(node) != lane) continue;
+                    if (lane == Lane.Background && deferBackground()) return;
+                    scheduled.clear(slot);
+                    pending.remove(node);
+                    lanes.marked.remove(node);
+                    lanes.current = lane;
+                    updateIfNecessary(node);
+                    if (frozen != graph) {
+                        scheduled.clear();
+                        drainPending();
+                        return;
+                    }
+                }
+            }
+        } finally {
+            lanes.current = previous;
+        }
+        pending.clear();
+        lanes.marked.clear();
+    }
+
+    /**
+     * Compiles the current graph into a flat propagation schedule.
+     *
+     * @return false if the graph could not be frozen
+     */
+    boolean freeze() {
+        thaw();
+        frozen = FrozenGraph.build(this);
+        if (frozen == null) return false;
+        // nodes pending from an open batch, a deferred flush or a sliced pass run with the schedule
+        for (var node : pending) {
+            frozen.scheduled.set(node.slot);
+        }
+        return true;
+    }
+
+    /**
+     * Drops the frozen schedule, and falls back to dynamic tracking.
+     */
+    void thaw() {
+        if (frozen == null) return;
+        // re-running observers track the sources they read from now on dynamically
+        for (var node : rerunning) {
+            dropUnread(node, frozen);
+        }
+        rerunning.clear();
+        frozen.release();
+        frozen = null;
+    }
+
+    /**
+     * Drops the frozen edges of an observer that it did not read again so far.
+     */
+    private void dropUnread(BaseNode<?> node, FrozenGraph graph) {
+        var nodeSources = sources.get(node);
+        for (int edge = graph.upOffsets[node.slot]; edge < graph.upOffsets[node.slot + 1]; edge++) {
+            if (graph.read.get(edge)) continue;
+            var source = graph.order[graph.upstream[edge]];
+            if (subscribers.containsKey(source)) {
+                subscribers.get(source).remove(node);
+            }
+            if (nodeSources != null) nodeSources.remove(source);
+            if (source.getState().isReleasable() && !hasSubscribers(source)) {
+                unobserved.add(source);
+            }
+        }
+        graph.clearReads(node.slot);
+    }
+
     void mark(BaseNode<?> node, NodeStatus level) {
         if (level.ordinal() > node.getStatus().ordinal())
             node.setStatus(level);
 
-        if (node.getState().isSubscriber() && !observer.equals(Maybe.just(node))) {
-            System.out.println("adding pending: " + node);
-            pending.add(node);
+        if (versions != null && node.isMemo())
+            versions.touch(node);
+
+        if (node.getState().isSubscriber() && observer.getUnchecked() != node) {
+            var added = pending.add(node);
+            if (lanes.enabled)
+                lanes.mark(node, lanes.current, added);
         }
 
         if (node.isDirty())
@@ -220,6 +755,13 @@ public class Runtime {
         cleanups.get(node).add(cleanup);
     }
 
+    void removeCleanup(BaseNode<?> node, Runnable cleanup) {
+        var list = cleanups.get(node);
+        if (list == null) return;
+        list.remove(cleanup);
+        if (list.isEmpty()) cleanups.remove(node);
+    }
+
     Property pushScopeProperty(BaseNode<?> propertyNode, PropertyType propertyType) {
         var ownerNode = owner.expectGet("Reactive value outside of the reactive root");
         properties.putIfAbsent(ownerNode, new HashSet<>());
@@ -234,23 +776,126 @@ public class Runtime {
         owners.remove(property.node());
     }
 
-    void cleanupSources(BaseNode<?> node) {
-        if (!sources.containsKey(node)) return;
-        sources.get(node).forEach(source -> {
+    /**
+     * Removes the edges of an observer about to re-run, which subscribes again to the sources it reads.
+     * An observer re-running in a frozen graph keeps its edges instead, until {@link #endRerun(BaseNode)}.
+     *
+     * @return true if the observer kept its frozen edges
+     */
+    boolean cleanupSources(BaseNode<?> node) {
+        if (!sources.containsKey(node)) return false;
+        if (frozen != null && node.slot >= 0 && observer.getUnchecked() == node) {
+            frozen.clearReads(node.slot);
+            rerunning.addLast(node);
+            return true;
+        }
+        thaw();
+        var nodeSources = sources.get(node);
+        nodeSources.forEach(source -> {
             if (subscribers.containsKey(source)) {
                 subscribers.get(source).remove(node);
             }
+            if (source.getState().isReleasable() && !hasSubscribers(source)) {
+                unobserved.add(source);
+            }
         });
+        nodeSources.clear();
+        return false;
+    }
+
+    /**
+     * Completes the run of an observer that kept its frozen edges.
+     * Sources that were not read again are dropped, which thaws the graph.
+     * Nothing is left to do if the graph was thawed while the observer ran.
+     */
+    void endRerun(BaseNode<?> node) {
+        if (rerunning.peekLast() != node) return;
+        if (frozen.readAll(node.slot)) {
+            frozen.clearReads(node.slot);
+            rerunning.removeLast();
+        } else {
+            thaw();
+        }
+    }
+
+    /**
+     * Records a write of the given node, once its state changed.
+     */
+    void commitWrite(BaseNode<?> node) {
+        checkWrite();
+        clock++;
+        node.getState().committed(clock);
+        if (journal != null)
+            journal.append(this, node, clock);
+        if (feed != null)
+            claimChange(node);
+        if (versions != null)
+            versions.claim(node);
+    }
+
+    /**
+     * Publishes the changes claimed since the last propagation pass to the change feed, outside of batches.
+     */
+    void publishChanges() {
+        if (isBatching()) return;
+        // writes made by a running node are published by the pass that runs it
+        if (versions != null && updateDepth == 0)
+            versions.publish(this);
+        if (feed != null)
+            feed.publish();
+    }
+
+    /**
+     * Claims the value of a node outside of a write, publishing it right away unless a batch,
+     * a propagation pass or a node is running, in which case it is published with them.
+     */
+    void claimVersion(BaseNode<?> node) {
+        versions.claim(node);
+        if (updateDepth == 0 && passDepth == 0 && !isBatching())
+            versions.publish(this);
+    }
+
+    private void claimChange(BaseNode<?> node) {
+        if (node.id >= 0)
+            feed.claim(node.id, clock, node.getState().peekValue());
+    }
+
+    /**
+     * Moves the clock forward to the given version, such as a version replayed from a journal.
+     */
+    void advanceClock(long version) {
+        clock = Math.max(clock, version);
     }
 
     void addNode(BaseNode<?> node) {
+        thaw();
         nodes.add(node);
+        var id = nextId++;
+        node.id = id;
+        if (versions != null && node.isReactive())
+            claimVersion(node);
+        if (snapshot != null && !snapshot.restore(this, node, id))
+            snapshot = null;
     }
 
     void disposeNode(BaseNode<?> node) {
+        thaw();
+        if (cleanups.containsKey(node)) {
+            cleanups.remove(node).forEach(Runnable::run);
+        }
+        cleanupSources(node);
+        node.getState().dispose();
+        pending.remove(node);
+        lanes.marked.remove(node);
+        unobserved.remove(node);
         subscribers.remove(node);
+        node.id = -1;
+        node.setFlag(BaseNode.Disposed);
         sources.remove(node);
         nodes.remove(node);
+        releaseUnobserved();
+        if (versions != null)
+            claimVersion(node);
     }
 
     void disposeRuntime() {
@@ -258,6 +903,8 @@ public class Runtime {
         subscribers.clear();
         sources.clear();
         pending.clear();
+        lanes.marked.clear();
+        unobserved.clear();
     }
 
 }
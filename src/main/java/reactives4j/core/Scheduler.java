@@ -0,0 +1,225 @@
+package reactives4j.core;
+
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import reactives4j.util.ReactiveUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Shared timer of a reactive context, implemented as a hashed timing wheel.
+ * <p> All time-based nodes of a context are driven by a single worker thread.
+ * Timers are hashed into the buckets of the wheel by deadline, so scheduling and cancelling are constant time,
+ * and each tick only visits the timers of a single bucket. </p>
+ * <p> Timers that expire on the same tick are handed over to the runtime as a single batched task,
+ * so their updates are propagated together. The worker parks while no timers are scheduled. </p>
+ */
+@Log4j2
+class Scheduler {
+
+    static final long TickNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    static final int WheelSize = 512;
+
+    private final Context context;
+
+    private final Bucket[] wheel = new Bucket[WheelSize];
+
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> removed = new ConcurrentLinkedQueue<>();
+
+    private final long startTime = System.nanoTime();
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * Number of timers held in the buckets. Only touched by the worker.
+     */
+    private int size = 0;
+
+    /**
+     * Current tick of the wheel. Only touched by the worker.
+     */
+    private long tick = 0;
+
+    Scheduler(Context cx) {
+        context = cx;
+        for (int i = 0; i < WheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        worker = Thread.ofVirtual().name(cx.getDebugName() + "-scheduler").start(this::work);
+    }
+
+    /**
+     * Runs the given runtime task once after the given delay.
+     */
+    @NotNull Timeout schedule(@NotNull Duration delay, @NotNull Consumer<Runtime> task) {
+        return add(delay, task, 0);
+    }
+
+    /**
+     * Runs the given runtime task periodically, starting after one period.
+     */
+    @NotNull Timeout scheduleAtFixedRate(@NotNull Duration period, @NotNull Consumer<Runtime> task) {
+        checkPeriod(period);
+        return add(period, task, period.toNanos());
+    }
+
+    /**
+     * Rejects the periods shorter than a tick, since a periodic timer fires at most once per tick.
+     */
+    static void checkPeriod(@NotNull Duration period) {
+        if (period.toNanos() < TickNanos)
+            ReactiveUtil.panic("Period of a timer must be at least " + TimeUnit.NANOSECONDS.toMillis(TickNanos) + "ms");
+    }
+
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    void cancelled(Timeout timeout) {
+        removed.add(timeout);
+    }
+
+    private Timeout add(Duration delay, Consumer<Runtime> task, long period) {
+        if (!running)
+            ReactiveUtil.panic("Terminated scheduler");
+        var deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+        var timeout = new Timeout(context, this, task, deadline, period);
+        added.add(timeout);
+        LockSupport.unpark(worker);
+        return timeout;
+    }
+
+    private void work() {
+        var expired = new ArrayList<Timeout>();
+        while (running) {
+            var now = waitForNextTick();
+            if (!running) break;
+
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & (WheelSize - 1))].expire(now, expired);
+            tick++;
+
+            if (!expired.isEmpty()) {
+                fire(List.copyOf(expired));
+                expired.clear();
+            }
+        }
+    }
+
+    /**
+     * Sleeps until the next tick, or until a timer is added if the wheel is empty.
+     * Returns the current time relative to the start of the wheel.
+     */
+    private long waitForNextTick() {
+        if (size == 0 && added.isEmpty()) {
+            LockSupport.park(this);
+            // the wheel was idle, so skip the ticks that passed in the meantime
+            tick = Math.max(tick, (System.nanoTime() - startTime) / TickNanos);
+        }
+        var target = (tick + 1) * TickNanos;
+        while (running) {
+            var now = System.nanoTime() - startTime;
+            if (now >= target) return now;
+            LockSupport.parkNanos(this, target - now);
+        }
+        return 0;
+    }
+
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.isCancelled()) continue;
+            var due = timeout.deadline / TickNanos;
+            timeout.remainingRounds = (due - tick) / WheelSize;
+            wheel[(int) (Math.max(due, tick) & (WheelSize - 1))].add(timeout);
+            size++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = removed.poll()) != null) {
+            if (timeout.bucket == null) continue;
+            timeout.bucket.remove(timeout);
+            size--;
+        }
+    }
+
+    private void fire(List<Timeout> timeouts) {
+        for (var timeout : timeouts) {
+            // periodic timers are rescheduled right away, so their period does not drift
+            if (timeout.isPeriodic() && !timeout.isCancelled()) {
+                timeout.deadline += timeout.period;
+                added.add(timeout);
+            }
+        }
+        try {
+            context.doWith(runtime -> runtime.batch(() -> timeouts.forEach(timeout -> timeout.fire(runtime))));
+        } catch (Exception e) {
+            log.warn("{}: Timer firing failed: {}", context.getDebugName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Doubly linked list of the timers hashed to the same slot of the wheel.
+     */
+    final class Bucket {
+
+        private Timeout head, tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            var next = timeout.next;
+            if (timeout.prev != null) timeout.prev.next = next;
+            if (next != null) next.prev = timeout.prev;
+            if (timeout == head) head = next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expire(long now, List<Timeout> expired) {
+            var timeout = head;
+            while (timeout != null) {
+                var next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                    size--;
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    size--;
+                    expired.add(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+    }
+
+}
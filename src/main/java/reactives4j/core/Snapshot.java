@@ -0,0 +1,296 @@
+package reactives4j.core;
+
+import reactives4j.util.ReactiveUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Binary snapshot of the values of a reactive graph, used to warm restart a graph without recomputing its memos.
+ * <p> Nodes are identified by their creation order, so a snapshot can only be restored into a graph
+ * that is built by the same code in the same order. Reactive values and the values of clean memos are stored,
+ * along with the sources of each memo, provided a {@link Codec} is registered for the class of the value. </p>
+ * <p> A restored snapshot is memory-mapped, and its records are looked up as nodes are created.
+ * Values are only decoded on first read. Restored memos start clean, subscribed to their stored sources,
+ * so they are only recomputed once one of their sources changes. </p>
+ * <p> File layout: a header, the node records, an index of the records sorted by node id, the codec table,
+ * and a trailer locating the index and the codec table. </p>
+ */
+final class Snapshot {
+
+    private static final int Magic = 0x52344A53;
+
+    private static final int Version = 1;
+
+    private static final int TrailerSize = 8 + 4 + 8 + 4;
+
+    private static final int IndexEntrySize = 8 + 8;
+
+    private final ByteBuffer buffer;
+
+    private final Codec<?>[] codecs;
+
+    private final int count;
+
+    private final int indexOffset;
+
+    /**
+     * Id of the last node stored in the snapshot, after which the snapshot is no longer needed.
+     */
+    private final long lastId;
+
+    /**
+     * Nodes created since the snapshot was opened, used to link restored memos to their sources.
+     */
+    private final Map<Long, BaseNode<?>> nodes = new HashMap<>();
+
+    private Snapshot(ByteBuffer buffer, Codec<?>[] codecs, int count, int indexOffset) {
+        this.buffer = buffer;
+        this.codecs = codecs;
+        this.count = count;
+        this.indexOffset = indexOffset;
+        lastId = count == 0 ? -1 : buffer.getLong(indexOffset + (count - 1) * IndexEntrySize);
+    }
+
+    /**
+     * Writes the values of all the nodes of the runtime to the given file, replacing it atomically.
+     */
+    static void write(Runtime runtime, Path path) throws IOException {
+        var ordered = new ArrayList<BaseNode<?>>();
+        for (var node : runtime.getNodes()) {
+            if (node.id >= 0) ordered.add(node);
+        }
+        ordered.sort(Comparator.comparingLong(node -> node.id));
+
+        var codecTable = new LinkedHashMap<String, Integer>();
+        var index = new ArrayList<long[]>();
+        var encoded = new ByteArrayOutputStream();
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (var counter = new CountingStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+             var out = new DataOutputStream(counter)) {
+            out.writeInt(Magic);
+            out.writeInt(Version);
+
+            for (var node : ordered) {
+                if (!node.isReactive() && !node.isMemo()) continue;
+                var value = node.getState().snapshotValue();
+                if (value.isNothing()) continue;
+                var codec = runtime.getCodecs().forValue(value.getUnchecked());
+                if (codec == null) continue;
+                var sources = sourceIds(runtime, node);
+                if (sources == null) continue;
+
+                encoded.reset();
+                encode(codec, value.getUnchecked(), new DataOutputStream(encoded));
+
+                index.add(new long[]{node.id, counter.count});
+                out.writeByte(node.getType().ordinal());
+                out.writeByte(node.getStatus().ordinal());
+                out.writeShort(codecTable.computeIfAbsent(codec.name(), name -> codecTable.size()));
+                out.writeInt(sources.length);
+                for (var source : sources) out.writeLong(source);
+                out.writeInt(encoded.size());
+                encoded.writeTo(out);
+            }
+
+            var indexStart = counter.count;
+            for (var entry : index) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+            var codecStart = counter.count;
+            out.writeInt(codecTable.size());
+            for (var name : codecTable.keySet()) out.writeUTF(name);
+
+            out.writeLong(indexStart);
+            out.writeInt(index.size());
+            out.writeLong(codecStart);
+            out.writeInt(Magic);
+            out.flush();
+            if (counter.count > Integer.MAX_VALUE)
+                ReactiveUtil.panic("Snapshot exceeds the maximum mappable size");
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the given snapshot file, and resolves its codecs against the registry of the runtime.
+     */
+    static Snapshot open(Runtime runtime, Path path) throws IOException {
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        var size = buffer.limit();
+        if (size < 8 + TrailerSize || buffer.getInt(0) != Magic || buffer.getInt(size - 4) != Magic)
+            ReactiveUtil.panic("Invalid snapshot file: " + path);
+        if (buffer.getInt(4) != Version)
+            ReactiveUtil.panic("Unsupported snapshot version: " + buffer.getInt(4));
+
+        var trailer = size - TrailerSize;
+        var indexOffset = (int) buffer.getLong(trailer);
+        var count = buffer.getInt(trailer + 8);
+        var codecOffset = (int) buffer.getLong(trailer + 12);
+
+        var table = new DataInputStream(new BufferStream(buffer.slice(codecOffset, trailer - codecOffset)));
+        var codecs = new Codec<?>[table.readInt()];
+        for (int i = 0; i < codecs.length; i++) {
+            // values of unknown codecs are not restored
+            codecs[i] = runtime.getCodecs().forName(table.readUTF());
+        }
+        return new Snapshot(buffer, codecs, count, indexOffset);
+    }
+
+    /**
+     * Restores the stored value of a newly created node, if any.
+     *
+     * @return false once all the nodes of the snapshot were created
+     */
+    boolean restore(Runtime runtime, BaseNode<?> node, long id) {
+        nodes.put(id, node);
+        var offset = find(id);
+        if (offset >= 0) restore(runtime, node, offset);
+        return id < lastId;
+    }
+
+    private void restore(Runtime runtime, BaseNode<?> node, int offset) {
+        var record = buffer.duplicate().position(offset);
+        var type = NodeType.values()[record.get()];
+        var status = NodeStatus.values()[record.get()];
+        var codec = codecs[record.getShort()];
+        var sources = new BaseNode<?>[record.getInt()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = nodes.get(record.getLong());
+        }
+        var length = record.getInt();
+        var value = buffer.slice(record.position(), length);
+
+        // the graph changed since the snapshot was written, or the value cannot be decoded
+        if (type != node.getType() || codec == null) return;
+
+        if (node.isMemo()) {
+            // dirty memos are recomputed, and so are memos whose sources are gone
+            if (status != NodeStatus.Clean) return;
+            if (Arrays.stream(sources).anyMatch(Objects::isNull)) return;
+            for (var source : sources) {
+                runtime.subscribeObserver(source, node);
+            }
+            node.setStatus(NodeStatus.Clean);
+        }
+        restoreValue(node, () -> decode(codec, value));
+    }
+
+    /**
+     * Returns the offset of the record of the given node id, or -1 if the node was not stored.
+     */
+    private int find(long id) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var entry = indexOffset + middle * IndexEntrySize;
+            var current = buffer.getLong(entry);
+            if (current < id) {
+                low = middle + 1;
+            } else if (current > id) {
+                high = middle - 1;
+            } else {
+                return (int) buffer.getLong(entry + 8);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the ids of the sources of a memo, or null if a source has no id.
+     */
+    private static long[] sourceIds(Runtime runtime, BaseNode<?> node) {
+        if (!node.isMemo()) return new long[0];
+        var sources = runtime.getSources().getOrDefault(node, Set.of());
+        var ids = new long[sources.size()];
+        int i = 0;
+        for (var source : sources) {
+            if (source.id < 0) return null;
+            ids[i++] = source.id;
+        }
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void restoreValue(BaseNode<T> node, Supplier<?> loader) {
+        node.getState().restore((Supplier<T>) loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void encode(Codec<T> codec, Object value, DataOutput out) throws IOException {
+        codec.encode((T) value, out);
+    }
+
+    private static Object decode(Codec<?> codec, ByteBuffer value) {
+        try {
+            return codec.decode(new DataInputStream(new BufferStream(value.duplicate())));
+        } catch (IOException e) {
+            ReactiveUtil.panic(e);
+            return null;
+        }
+    }
+
+    /**
+     * Output stream that counts the bytes written, beyond the int range of {@link DataOutputStream#size()}.
+     */
+    private static final class CountingStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+    }
+
+    /**
+     * Input stream reading a region of the mapped file.
+     */
+    private static final class BufferStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            var read = Math.min(len, buffer.remaining());
+            buffer.get(b, off, read);
+            return read;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * View of the elements of a source list sorted by a comparator.
+ * <p> Entries are kept in two trees, one in source order and one in sorted order.
+ * Equal elements are ordered by insertion, so that the position of every entry in the sorted tree is unique. </p>
+ */
+final class SortedList<T> extends ListView<T> {
+
+    private final Comparator<T> comparator;
+
+    private final IndexedTree<Entry<T>> source = new IndexedTree<>();
+
+    private final IndexedTree<Entry<T>> sorted = new IndexedTree<>();
+
+    private long sequence = 0;
+
+    SortedList(ListView<T> view, Comparator<T> comparator) {
+        super(view.getContext());
+        this.comparator = comparator;
+        for (var value : view.values()) {
+            insert(source.size(), value);
+        }
+        detach = view.attach(this::apply);
+    }
+
+    @Override
+    T read(int index) {
+        return sorted.node(index).value.value;
+    }
+
+    @Override
+    int count() {
+        return sorted.size();
+    }
+
+    @Override
+    List<T> values() {
+        var entries = sorted.values(false);
+        var values = new ArrayList<T>(entries.size());
+        entries.forEach(entry -> values.add(entry.value));
+        return values;
+    }
+
+    private void apply(Runtime runtime, List<ListChange<T>> changes) {
+        var applied = new ArrayList<ListChange<T>>(changes.size());
+        for (var change : changes) {
+            switch (change.kind()) {
+                case Insert -> {
+                    var index = insert(change.index(), change.value());
+                    applied.add(ListChange.insert(index, change.value()));
+                }
+                case Remove -> {
+                    var node = source.node(change.index());
+                    var entry = node.value;
+                    var index = sorted.indexOf(entry.node);
+                    sorted.remove(entry.node);
+                    source.remove(node);
+                    applied.add(ListChange.remove(index, entry.value));
+                }
+                case Update -> {
+                    var entry = source.node(change.index()).value;
+                    var oldValue = entry.value;
+                    var oldIndex = sorted.indexOf(entry.node);
+                    sorted.remove(entry.node);
+                    entry.value = change.value();
+                    var index = place(entry);
+                    if (index == oldIndex) {
+                        applied.add(ListChange.update(index, entry.value, oldValue));
+                    } else {
+                        applied.add(ListChange.remove(oldIndex, oldValue));
+                        applied.add(ListChange.insert(index, entry.value));
+                    }
+                }
+            }
+        }
+        emit(runtime, applied);
+    }
+
+    private int insert(int index, T value) {
+        var entry = new Entry<>(value, sequence++);
+        source.insert(index, entry, 1);
+        return place(entry);
+    }
+
+    /**
+     * Inserts the entry in the sorted tree, and returns its index.
+     */
+    private int place(Entry<T> entry) {
+        var index = sorted.countBefore(other -> compare(entry, other));
+        entry.node = sorted.insert(index, entry, 1);
+        return index;
+    }
+
+    private int compare(Entry<T> entry, Entry<T> other) {
+        var result = comparator.compare(entry.value, other.value);
+        return result != 0 ? result : Long.compare(entry.sequence, other.sequence);
+    }
+
+    private static final class Entry<T> {
+
+        private final long sequence;
+
+        private T value;
+
+        private IndexedTree.Node<Entry<T>> node;
+
+        private Entry(T value, long sequence) {
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+    }
+
+}
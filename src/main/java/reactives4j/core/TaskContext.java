@@ -16,8 +16,17 @@ public class TaskContext {
     @Getter(AccessLevel.PACKAGE)
     private final ExecutorService service = Executors.newVirtualThreadPerTaskExecutor();
 
+    /**
+     * Returns the shared task context. A context that was shut down is replaced by a new one.
+     */
     public static TaskContext getContext() {
-        return TaskContextHolder.instance;
+        var context = TaskContextHolder.instance;
+        if (!context.service.isShutdown()) return context;
+        synchronized (TaskContextHolder.class) {
+            if (TaskContextHolder.instance.service.isShutdown())
+                TaskContextHolder.instance = new TaskContext();
+            return TaskContextHolder.instance;
+        }
     }
 
     @NotNull Future<Void> submitTask(@NotNull Runnable fx) {
@@ -38,7 +47,7 @@ public class TaskContext {
 
     private static class TaskContextHolder {
 
-        private static final TaskContext instance = new TaskContext();
+        private static volatile TaskContext instance = new TaskContext();
 
     }
 
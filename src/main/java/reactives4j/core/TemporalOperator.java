@@ -0,0 +1,125 @@
+package reactives4j.core;
+
+import reactives4j.util.ReactiveUtil;
+
+import java.time.Duration;
+
+/**
+ * Rate-limiting operator that forwards the value of a source node to a derived memo.
+ * Timers are driven by the shared {@link Scheduler} of the context,
+ * and all the state of the operator is only touched on the runtime thread.
+ *
+ * @param <T> type of the source value
+ */
+class TemporalOperator<T> {
+
+    private final Context context;
+
+    private final Mode mode;
+
+    private final Duration window;
+
+    private final Reactive<T> target;
+
+    private Handle watch;
+
+    private Timeout timer;
+
+    private T latest;
+
+    private boolean changed = false;
+
+    private TemporalOperator(Context cx, BaseNode<T> source, Duration window, Mode mode) {
+        context = cx;
+        this.mode = mode;
+        this.window = window;
+        target = Reactive.create(cx, source.getValue());
+    }
+
+    static <T> Memo<T> create(Context cx, BaseNode<T> source, Duration window, Mode mode) {
+        if (window.isNegative() || window.isZero())
+            ReactiveUtil.panic("Window of a temporal operator must be positive");
+        if (mode == Mode.Sample)
+            Scheduler.checkPeriod(window);
+        cx.checkService("timer threads");
+
+        return cx.with(runtime -> {
+            runtime.updateIfNecessary(source);
+            var operator = new TemporalOperator<>(cx, source, window, mode);
+            operator.watch = WatchEffect.create(cx, source, (value, _old) -> operator.accept(value));
+            if (mode == Mode.Sample)
+                operator.timer = cx.getScheduler().scheduleAtFixedRate(window, rt -> operator.sample());
+
+            var memo = Memo.create(cx, operator.target::get, false);
+            runtime.addCleanup(memo, operator::dispose);
+            return memo;
+        });
+    }
+
+    private void accept(T value) {
+        latest = value;
+        switch (mode) {
+            case Debounce -> {
+                cancelTimer();
+                timer = schedule(this::emitLatest);
+            }
+            case Throttle -> {
+                if (timer != null) return;
+                target.set(value);
+                timer = schedule(() -> timer = null);
+            }
+            case Audit -> {
+                if (timer != null) return;
+                timer = schedule(this::emitLatest);
+            }
+            case Sample -> changed = true;
+        }
+    }
+
+    private void sample() {
+        if (!changed) return;
+        changed = false;
+        target.set(latest);
+    }
+
+    private void emitLatest() {
+        timer = null;
+        target.set(latest);
+    }
+
+    private Timeout schedule(Runnable action) {
+        return context.getScheduler().schedule(window, runtime -> action.run());
+    }
+
+    private void cancelTimer() {
+        if (timer == null) return;
+        timer.cancel();
+        timer = null;
+    }
+
+    private void dispose() {
+        cancelTimer();
+        watch.dispose();
+        target.dispose();
+    }
+
+    enum Mode {
+        /**
+         * Emits the latest value once the source has been quiet for the whole window.
+         */
+        Debounce,
+        /**
+         * Emits the first value immediately, then ignores changes until the window closes.
+         */
+        Throttle,
+        /**
+         * Emits the latest value at fixed intervals, if the source changed since the last emission.
+         */
+        Sample,
+        /**
+         * Opens a window on the first change, and emits the latest value when it closes.
+         */
+        Audit
+    }
+
+}
@@ -0,0 +1,113 @@
+package reactives4j.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Handle to a timer scheduled on the timing wheel of a context.
+ * Disposing the handle cancels the timer in constant time.
+ *
+ * @see Scheduler
+ */
+public final class Timeout implements Handle {
+
+    private static final int Waiting = 0;
+
+    private static final int Cancelled = 1;
+
+    private static final int Expired = 2;
+
+    @Getter(AccessLevel.PUBLIC)
+    private final Context context;
+
+    private final Scheduler scheduler;
+
+    private final Consumer<Runtime> task;
+
+    private final AtomicInteger state = new AtomicInteger(Waiting);
+
+    /**
+     * Period in nanoseconds for periodic timers, zero for one-shot timers.
+     */
+    final long period;
+
+    /**
+     * Deadline in nanoseconds, relative to the start of the timing wheel.
+     */
+    long deadline;
+
+    /**
+     * Remaining rotations of the wheel before the timer is due. Only touched by the wheel worker.
+     */
+    long remainingRounds;
+
+    /**
+     * Links of the wheel bucket holding the timer. Only touched by the wheel worker.
+     */
+    Timeout next, prev;
+
+    Scheduler.Bucket bucket;
+
+    Timeout(Context cx, Scheduler scheduler, Consumer<Runtime> task, long deadline, long period) {
+        context = cx;
+        this.scheduler = scheduler;
+        this.task = task;
+        this.deadline = deadline;
+        this.period = period;
+    }
+
+    /**
+     * Cancels the timer. Firings already handed over to the runtime are skipped.
+     */
+    public void cancel() {
+        if (state.compareAndSet(Waiting, Cancelled))
+            scheduler.cancelled(this);
+    }
+
+    /**
+     * Returns true if the timer was cancelled.
+     */
+    public boolean isCancelled() {
+        return state.get() == Cancelled;
+    }
+
+    /**
+     * Returns true if a one-shot timer has fired.
+     */
+    public boolean isExpired() {
+        return state.get() == Expired;
+    }
+
+    /**
+     * @see #cancel()
+     */
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    boolean isPeriodic() {
+        return period > 0;
+    }
+
+    /**
+     * Runs the timer task on the runtime thread, unless it was cancelled in the meantime.
+     */
+    void fire(Runtime runtime) {
+        if (isPeriodic()) {
+            if (state.get() != Waiting) return;
+        } else if (!state.compareAndSet(Waiting, Expired)) {
+            return;
+        }
+        task.accept(runtime);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Timeout(deadline=%d, period=%d, state=%d)", deadline, period, state.get());
+    }
+
+}
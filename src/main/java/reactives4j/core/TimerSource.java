@@ -0,0 +1,47 @@
+package reactives4j.core;
+
+import java.time.Duration;
+
+/**
+ * Reactive sources driven by the timing wheel of a context.
+ *
+ * @see Scheduler
+ */
+final class TimerSource {
+
+    private TimerSource() { }
+
+    /**
+     * Creates a memo that counts the elapsed periods, starting from zero.
+     */
+    static Memo<Long> interval(Context cx, Duration period) {
+        Scheduler.checkPeriod(period);
+        return cx.with(runtime -> {
+            var ticks = Reactive.create(cx, 0L);
+            var timer = cx.getScheduler().scheduleAtFixedRate(period, rt -> ticks.update(x -> x + 1));
+            var memo = Memo.create(cx, ticks::get, false);
+            runtime.addCleanup(memo, () -> {
+                timer.cancel();
+                ticks.dispose();
+            });
+            return memo;
+        });
+    }
+
+    /**
+     * Creates a memo that turns true once the delay has elapsed.
+     */
+    static Memo<Boolean> timeout(Context cx, Duration delay) {
+        return cx.with(runtime -> {
+            var elapsed = Reactive.create(cx, false);
+            var timer = cx.getScheduler().schedule(delay, rt -> elapsed.set(true));
+            var memo = Memo.create(cx, elapsed::get, false);
+            runtime.addCleanup(memo, () -> {
+                timer.cancel();
+                elapsed.dispose();
+            });
+            return memo;
+        });
+    }
+
+}
@@ -4,8 +4,21 @@ import java.util.concurrent.Future;
 
 public class Trigger extends BaseNode<Void> {
 
+    /**
+     * Triggers hold no value, so they all share the same state.
+     */
+    private static final TriggerState State = new TriggerState();
+
     Trigger(Context cx) {
-        super(cx, NodeType.Trigger, new TriggerState(), NodeStatus.Clean);
+        super(cx, NodeType.Trigger, State, NodeStatus.Clean);
+    }
+
+    /**
+     * Creates the node slot of a field of a reactive model, holding the value of the field.
+     */
+    @SuppressWarnings("unchecked")
+    Trigger(Context cx, FieldState state) {
+        super(cx, NodeType.Trigger, (BaseState<Void>) (BaseState<?>) state, NodeStatus.Clean);
     }
 
     static Trigger create(Context cx) {
@@ -0,0 +1,75 @@
+package reactives4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring of the recent values of a reactive value, along with the runtime clock of each write.
+ * Only touched on the runtime thread.
+ *
+ * @param <T> type of the values
+ */
+final class ValueHistory<T> {
+
+    private final long[] versions;
+
+    private final Object[] values;
+
+    /**
+     * Index of the next slot to write.
+     */
+    private int head = 0;
+
+    private int size = 0;
+
+    ValueHistory(int capacity) {
+        versions = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    void add(long version, T value) {
+        versions[head] = version;
+        values[head] = value;
+        head = (head + 1) % versions.length;
+        size = Math.min(size + 1, versions.length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the entry written the given number of writes ago, zero being the latest entry.
+     */
+    private int slot(int writesAgo) {
+        return Math.floorMod(head - 1 - writesAgo, versions.length);
+    }
+
+    long versionAgo(int writesAgo) {
+        return versions[slot(writesAgo)];
+    }
+
+    @SuppressWarnings("unchecked")
+    T valueAgo(int writesAgo) {
+        return (T) values[slot(writesAgo)];
+    }
+
+    /**
+     * Returns the number of writes ago of the latest entry written at or before the given version, or -1 if none.
+     */
+    int find(long version) {
+        for (int i = 0; i < size; i++) {
+            if (versionAgo(i) <= version) return i;
+        }
+        return -1;
+    }
+
+    List<HistoryEntry<T>> entries() {
+        var entries = new ArrayList<HistoryEntry<T>>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            entries.add(new HistoryEntry<>(versionAgo(i), valueAgo(i)));
+        }
+        return entries;
+    }
+
+}
@@ -0,0 +1,230 @@
+package reactives4j.core;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multi-version store of the values of reactive values and memos, read by pinned views on other threads.
+ * <p> Every propagation committed by the runtime publishes a version, numbered by the runtime clock.
+ * Each node keeps a chain of its values, newest first, and a view pinned at a version reads the newest value
+ * of each chain that is not newer than its version. Memos marked by a propagation are brought up to date
+ * before the version is published, so every version holds consistent values. </p>
+ * <p> Chains are only written by the runtime thread, and read without locks. Entries that are hidden by a newer
+ * entry from every pinned view, and from the latest version, are reclaimed after each publication,
+ * and once a view is closed. </p>
+ */
+final class VersionStore {
+
+    /**
+     * Value of a node from a version until the next entry of its chain, or absent if the value is null.
+     */
+    static final class Entry {
+
+        final long version;
+
+        final Object value;
+
+        volatile Entry next;
+
+        Entry(long version, Object value, Entry next) {
+            this.version = version;
+            this.value = value;
+            this.next = next;
+        }
+
+    }
+
+    /**
+     * Newest entry of each versioned node.
+     */
+    private final Map<BaseNode<?>, Entry> chains = new ConcurrentHashMap<>();
+
+    /**
+     * Nodes whose chain holds more than one entry, the only ones that can be reclaimed.
+     */
+    private final Set<BaseNode<?>> multiple = new HashSet<>();
+
+    /**
+     * Nodes whose value changed since the last publication.
+     */
+    private final Set<BaseNode<?>> claimed = new HashSet<>();
+
+    /**
+     * Memos marked since the last publication, brought up to date before publishing.
+     */
+    private final Set<BaseNode<?>> touched = new HashSet<>();
+
+    /**
+     * Views that are not closed yet.
+     */
+    private final Set<PinnedView> pins = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether a reclamation is queued on the runtime thread.
+     */
+    private final AtomicBoolean reclaimScheduled = new AtomicBoolean();
+
+    /**
+     * Latest published version.
+     */
+    private volatile long published = -1;
+
+    private boolean publishing = false;
+
+    /**
+     * Versions the current values of the given runtime, bringing the memos holding a value up to date.
+     */
+    void seed(Runtime runtime) {
+        for (var node : runtime.getNodes()) {
+            if (node.getState().isWritable()) {
+                claim(node);
+            } else if (node.isMemo() && currentValue(node) != null) {
+                touch(node);
+                claim(node);
+            }
+        }
+        publish(runtime);
+    }
+
+    void claim(BaseNode<?> node) {
+        claimed.add(node);
+    }
+
+    void touch(BaseNode<?> node) {
+        touched.add(node);
+    }
+
+    /**
+     * Publishes the values claimed since the last publication as the version of the current runtime clock.
+     */
+    void publish(Runtime runtime) {
+        if (publishing) return;
+        publishing = true;
+        try {
+            // memos claim their value as they are brought up to date
+            while (!touched.isEmpty()) {
+                var memos = touched.toArray(new BaseNode<?>[0]);
+                touched.clear();
+                for (var memo : memos) {
+                    if (!memo.hasFlag(BaseNode.Disposed))
+                        runtime.updateIfNecessary(memo);
+                }
+            }
+            var version = runtime.getClock();
+            for (var node : claimed) {
+                append(node, version);
+            }
+            claimed.clear();
+            published = version;
+            reclaim();
+        } finally {
+            publishing = false;
+        }
+    }
+
+    private void append(BaseNode<?> node, long version) {
+        var value = node.hasFlag(BaseNode.Disposed) ? null : currentValue(node);
+        var head = chains.get(node);
+        if (head == null) {
+            if (value != null)
+                chains.put(node, new Entry(version, value, null));
+            return;
+        }
+        // several values of the same version only differ by their cached state, such as a recomputed memo
+        var next = head.version == version ? head.next : head;
+        chains.put(node, new Entry(version, value, next));
+        if (next != null)
+            multiple.add(node);
+    }
+
+    /**
+     * Returns the value held by a node, loading it first if it was restored from a snapshot, or null if there is none.
+     */
+    private static Object currentValue(BaseNode<?> node) {
+        var value = node.getState().snapshotValue();
+        return value.isNothing() ? null : value.getUnchecked();
+    }
+
+    /**
+     * Drops the entries that no view can read anymore. Called on the runtime thread.
+     */
+    void reclaim() {
+        reclaimScheduled.set(false);
+        // the published version is read before the pins, see pin()
+        var oldest = published;
+        for (var view : pins) {
+            oldest = Math.min(oldest, view.getVersion());
+        }
+        var iter = multiple.iterator();
+        while (iter.hasNext()) {
+            var node = iter.next();
+            var head = chains.get(node);
+            var visible = head;
+            while (visible != null && visible.version > oldest) {
+                visible = visible.next;
+            }
+            if (visible != null)
+                visible.next = null;
+            if (head.next != null) continue;
+            iter.remove();
+            if (head.value == null)
+                chains.remove(node);
+        }
+    }
+
+    /**
+     * Pins the latest published version. Called on any thread.
+     */
+    PinnedView pin(Context cx) {
+        while (true) {
+            var version = published;
+            var view = new PinnedView(cx, this, version);
+            pins.add(view);
+            // a reclamation that missed the pin also published a newer version, so the old one may be gone
+            if (published == version) return view;
+            pins.remove(view);
+        }
+    }
+
+    /**
+     * Releases a pinned view, and queues the reclamation of the versions only it could read.
+     */
+    void unpin(Context cx, PinnedView view) {
+        if (!pins.remove(view)) return;
+        if (!cx.isActive() || !reclaimScheduled.compareAndSet(false, true)) return;
+        cx.doWith(runtime -> {
+            if (runtime.versions == this)
+                reclaim();
+        });
+    }
+
+    /**
+     * Returns the value of the given node at the given version, or null if it had none.
+     */
+    Object read(BaseNode<?> node, long version) {
+        var entry = chains.get(node);
+        while (entry != null && entry.version > version) {
+            entry = entry.next;
+        }
+        return entry != null ? entry.value : null;
+    }
+
+    long getPublished() {
+        return published;
+    }
+
+    /**
+     * Returns the number of entries kept for the given node.
+     */
+    int chainLength(BaseNode<?> node) {
+        int length = 0;
+        for (var entry = chains.get(node); entry != null; entry = entry.next) {
+            length++;
+        }
+        return length;
+    }
+
+}
@@ -1,35 +1,83 @@
 package reactives4j.core;
 
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class WatchJob<T> extends BaseTask implements TaskHandle {
 
+    /**
+     * Execution policy deciding how changes are handled while a run is in progress.
+     */
+    @Getter(AccessLevel.PUBLIC)
+    private final JobPolicy policy;
+
+    /**
+     * Runs waiting for the run in progress, in submission order.
+     */
+    private final Deque<Runnable> queued = new ArrayDeque<>();
+
+    /**
+     * Future of the latest run in progress.
+     */
+    private Future<Void> running;
+
+    /**
+     * Identifier of the latest started run. Completions of older runs are stale under a single-run policy.
+     */
+    private long current = 0;
+
+    private int active = 0;
+
+    private long submitted = 0;
+
+    private long started = 0;
+
+    private long completed = 0;
+
+    private long failed = 0;
+
+    private long cancelled = 0;
+
+    private long conflated = 0;
+
+    private long dropped = 0;
+
     WatchJob(Context cx) {
+        this(cx, JobPolicy.unbounded());
+    }
+
+    WatchJob(Context cx, JobPolicy policy) {
         super(cx);
+        this.policy = policy;
     }
 
     void setSource(Reactive<T> rx, BiConsumer<T, T> fx) {
-        source = context.watchEffect(rx, (oldValue, newValue) -> {
-            apply(() -> fx.accept(oldValue, newValue));
+        source = context.watchEffect(rx, (value, old) -> {
+            apply(() -> fx.accept(value, old));
         });
     }
 
     void setSource(Reactive<T> rx, Consumer<T> fx) {
-        source = context.watchEffect(rx, (oldValue, newValue) -> {
-            apply(() -> fx.accept(newValue));
+        source = context.watchEffect(rx, (value, old) -> {
+            apply(() -> fx.accept(value));
         });
     }
 
     void setSource(Memo<T> rx, BiConsumer<T, T> fx) {
-        source = context.watchEffect(rx, (oldValue, newValue) -> {
-            apply(() -> fx.accept(oldValue, newValue));
+        source = context.watchEffect(rx, (value, old) -> {
+            apply(() -> fx.accept(value, old));
         });
     }
 
     void setSource(Memo<T> rx, Consumer<T> fx) {
-        source = context.watchEffect(rx, (oldValue, newValue) -> {
-            apply(() -> fx.accept(newValue));
+        source = context.watchEffect(rx, (value, old) -> {
+            apply(() -> fx.accept(value));
         });
     }
 
@@ -46,12 +94,81 @@ public class WatchJob<T> extends BaseTask implements TaskHandle {
     }
 
     void apply(Runnable fx) {
-        loading.set(true);
+        synchronized (queued) {
+            submitted++;
+            var wasIdle = active == 0;
+            // loading is set before the run starts, a fast run could otherwise clear it first
+            if (wasIdle)
+                loading.set(true);
+            if (wasIdle || policy.mode() == JobPolicy.Mode.Unbounded) {
+                start(fx);
+            } else {
+                switch (policy.mode()) {
+                    case Conflate -> {
+                        if (!queued.isEmpty()) {
+                            queued.clear();
+                            conflated++;
+                        }
+                        queued.add(fx);
+                    }
+                    case Switch -> {
+                        running.cancel(true);
+                        cancelled++;
+                        active--;
+                        start(fx);
+                    }
+                    case Queue -> {
+                        if (queued.size() < policy.capacity()) {
+                            queued.add(fx);
+                        } else {
+                            dropped++;
+                        }
+                    }
+                    case Drop -> dropped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the counters of this job.
+     */
+    public JobMetrics getMetrics() {
+        synchronized (queued) {
+            return new JobMetrics(
+                    policy, submitted, started, completed, failed, cancelled, conflated, dropped, active, queued.size()
+            );
+        }
+    }
+
+    private void start(Runnable fx) {
+        var id = ++current;
+        active++;
+        started++;
         var taskContext = TaskContext.getContext();
-        taskContext.submitTask(() -> {
-            fx.run();
-            loading.set(false);
+        running = taskContext.submitTask(() -> {
+            boolean success = false;
+            try {
+                fx.run();
+                success = true;
+            } finally {
+                complete(id, success);
+            }
         });
     }
 
+    private void complete(long id, boolean success) {
+        synchronized (queued) {
+            // a newer run took over this one
+            if (policy.mode() != JobPolicy.Mode.Unbounded && id != current) return;
+            completed++;
+            if (!success) failed++;
+            active--;
+            var next = queued.poll();
+            if (next != null) start(next);
+            if (active == 0)
+                loading.set(false);
+        }
+    }
+
 }
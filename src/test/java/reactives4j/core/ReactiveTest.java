@@ -6,11 +6,34 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.jupiter.api.*;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ReactiveTest {
 
@@ -282,6 +305,1572 @@ public class ReactiveTest {
         }, true);
     }
 
+    @Test
+    void test21() throws InterruptedException {
+        var input = cx.reactive(0);
+        var debounced = cx.debounce(input, Duration.ofMillis(50));
+        var counter = new Counter();
+        cx.watchEffect(debounced, x -> counter.increment());
+        for (int i = 1; i <= 5; i++) {
+            input.set(i);
+        }
+        assertEquals(0, debounced.get());
+        Thread.sleep(300);
+        assertEquals(5, debounced.get());
+        assertEquals(1, counter.count());
+    }
+
+    @Test
+    void test22() throws InterruptedException {
+        var input = cx.reactive(0);
+        var throttled = cx.throttle(input, Duration.ofMillis(200));
+        var audited = cx.audit(input, Duration.ofMillis(50));
+        input.set(1);
+        input.set(2);
+        input.set(3);
+        assertEquals(1, throttled.get());
+        Thread.sleep(300);
+        assertEquals(1, throttled.get());
+        assertEquals(3, audited.get());
+        input.set(4);
+        assertEquals(4, throttled.get());
+    }
+
+    @Test
+    void test23() throws InterruptedException {
+        var start = System.nanoTime();
+        var ticks = cx.interval(Duration.ofMillis(20));
+        var elapsed = cx.timeout(Duration.ofMillis(100));
+        var cancelled = cx.timeout(Duration.ofMillis(50));
+        assertEquals(false, elapsed.get());
+        cancelled.dispose();
+        Thread.sleep(300);
+        assertEquals(true, elapsed.get());
+        assertEquals(false, cancelled.getUntracked());
+
+        // the interval never fires early, and keeps counting
+        await(() -> ticks.getUntracked() >= 5);
+        var count = ticks.getUntracked();
+        var periods = (System.nanoTime() - start) / TimeUnit.MILLISECONDS.toNanos(20);
+        assertTrue(count <= periods, "ticks = " + count + ", periods = " + periods);
+
+        // periods shorter than a tick cannot be honoured
+        var failed = false;
+        try {
+            cx.interval(Duration.ofMillis(1));
+        } catch (ReactiveException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+    }
+
+    @Test
+    void test24() {
+        var a = cx.reactive(0);
+        var b = cx.reactive(0);
+        var trace = new ArrayList<Integer>();
+        cx.effect(() -> trace.add(a.get() + b.get()));
+        cx.batch(() -> {
+            a.set(1);
+            b.set(2);
+        });
+        assertEquals(List.of(0, 3), trace);
+    }
+
+    @Test
+    void test25() throws InterruptedException {
+        var number = cx.reactive(0);
+        var doubled = cx.memo(() -> number.get() * 2);
+        var received = new LinkedBlockingQueue<Integer>();
+        var subscription = new AtomicReference<Flow.Subscription>();
+        cx.publisher(doubled).subscribe(new Flow.Subscriber<>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(1);
+            }
+
+            public void onNext(Integer item) {
+                received.add(item);
+            }
+
+            public void onError(Throwable throwable) { }
+
+            public void onComplete() { }
+        });
+        assertEquals(0, received.poll(1, TimeUnit.SECONDS));
+        for (int i = 1; i <= 10; i++) {
+            number.set(i);
+        }
+        Thread.sleep(100);
+        assertTrue(received.isEmpty());
+        subscription.get().request(5);
+        assertEquals(20, received.poll(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void test26() throws Exception {
+        var publisher = new SubmissionPublisher<Integer>();
+        var folded = new AtomicInteger();
+        var sum = cx.fromPublisher(publisher, 0, 16, (a, b) -> {
+            folded.set(a + b);
+            return a + b;
+        });
+        var counter = new Counter();
+        var last = new AtomicInteger();
+        cx.watchEffect(sum.value(), x -> {
+            counter.increment();
+            last.set(x);
+        });
+        cx.submitWith(runtime -> { }).get();
+
+        // the runtime is busy while the elements arrive, so they are folded into the next turn
+        var busy = new CountDownLatch(1);
+        cx.submitWith(runtime -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        for (int i = 1; i <= 1000; i++) {
+            publisher.submit(i);
+        }
+        publisher.close();
+        await(() -> folded.get() == 500500);
+        busy.countDown();
+
+        await(() -> sum.done().getUntracked());
+        assertEquals(500500, sum.value().get());
+        assertEquals(500500, last.get());
+        assertEquals(1, counter.count());
+    }
+
+    @Test
+    void test27() {
+        var number = cx.reactive(1);
+        var evaluations = new Counter();
+        var doubled = cx.memo(() -> {
+            evaluations.increment();
+            return number.get() * 2;
+        }, CachePolicy.Cold);
+        assertEquals(1, number.get());
+        assertEquals(0, evaluations.count());
+        var effect = cx.effect(() -> doubled.get());
+        number.set(2);
+        assertEquals(4, doubled.get());
+        assertEquals(2, evaluations.count());
+        effect.dispose();
+        number.set(3);
+        number.set(4);
+        assertEquals(4, number.get());
+        assertEquals(2, evaluations.count());
+        assertEquals(8, doubled.getUntracked());
+        assertEquals(3, evaluations.count());
+        number.set(5);
+        assertEquals(5, number.get());
+        assertEquals(3, evaluations.count());
+    }
+
+    @Test
+    void test28() {
+        cx.withMemoBudget(100);
+        var number = cx.reactive(1);
+        var first = cx.memo(() -> number.get() + 1, x -> 60);
+        var second = cx.memo(() -> number.get() + 2, x -> 60);
+        assertEquals(1, first.getStats().evictions());
+        assertEquals(2, first.get());
+        assertEquals(1, first.getStats().recomputes());
+        assertEquals(1, second.getStats().evictions());
+        number.set(10);
+        assertEquals(11, first.get());
+        assertEquals(12, second.get());
+        var soft = cx.memo(() -> List.of(number.get()), CachePolicy.Soft);
+        assertEquals(List.of(10), soft.get());
+        assertEquals(CachePolicy.Soft, soft.getStats().policy());
+    }
+
+    @Test
+    void test29() {
+        var factor = cx.reactive(2);
+        MemoFamily<Integer, Integer> scaled = cx.memoFamily(key -> () -> key * factor.get(), 2);
+        var first = scaled.get(1);
+        assertEquals(first, scaled.get(1));
+        assertEquals(2, scaled.get(1).get());
+        var observed = scaled.get(2);
+        var effect = cx.effect(() -> observed.get());
+        var third = scaled.get(3);
+        var fourth = scaled.get(4);
+        factor.set(3);
+        assertEquals(6, observed.get());
+        var stats = scaled.getStats();
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.size());
+        // the least recently used unobserved keys are evicted, the observed key is kept
+        assertEquals(2, stats.evictions());
+        assertEquals(12, fourth.get());
+        assertEquals(fourth, scaled.get(4));
+
+        // evicted handles fail on read, and the next lookup of their key creates a new memo
+        for (var evicted : List.of(first, third)) {
+            var failed = false;
+            try {
+                evicted.get();
+            } catch (ReactiveException e) {
+                failed = true;
+            }
+            assertTrue(failed);
+        }
+        var recreated = scaled.get(1);
+        assertTrue(recreated != first);
+        assertEquals(3, recreated.get());
+        effect.dispose();
+    }
+
+    @Test
+    void test30() {
+        var pool = new ForkJoinPool(4);
+        cx.withParallelPropagation(pool);
+        var number = cx.reactive(1);
+        var threads = ConcurrentHashMap.<String>newKeySet();
+        var memos = new ArrayList<Memo<Integer>>();
+        for (int i = 1; i <= 8; i++) {
+            var factor = i;
+            memos.add(cx.pureMemo(() -> {
+                threads.add(Thread.currentThread().getName());
+                sleep(20);
+                return number.get() * factor;
+            }));
+        }
+        var offset = cx.pureMemo(() -> memos.get(0).get() + 1);
+        var total = cx.reactive(0);
+        cx.effect(() -> total.setUntracked(memos.stream().mapToInt(Memo::get).sum() + offset.get()));
+        number.set(2);
+        assertEquals(2 * 36 + 3, total.get());
+        assertTrue(threads.size() > 1);
+        pool.shutdown();
+    }
+
+    @Test
+    void test31() {
+        var list = cx.<Integer>list();
+        var evens = list.filter(x -> x % 2 == 0);
+        var doubled = evens.map(x -> x * 2);
+        var sorted = list.sorted(Comparator.reverseOrder());
+        var groups = list.groupBy(x -> x % 3);
+        var inserted = new ArrayList<Integer>();
+        cx.effect(() -> doubled.changes().get().changes().forEach(change -> {
+            if (change.kind() == ListChange.Kind.Insert) inserted.add(change.value());
+        }));
+
+        var random = new Random(31);
+        var expected = new ArrayList<Integer>();
+        for (int i = 0; i < 500; i++) {
+            var value = random.nextInt(100);
+            var op = expected.isEmpty() ? 0 : random.nextInt(3);
+            if (op == 0) {
+                var index = random.nextInt(expected.size() + 1);
+                expected.add(index, value);
+                list.add(index, value);
+            } else if (op == 1) {
+                var index = random.nextInt(expected.size());
+                expected.set(index, value);
+                list.set(index, value);
+            } else {
+                var index = random.nextInt(expected.size());
+                expected.remove(index);
+                list.remove(index);
+            }
+        }
+
+        assertEquals(expected, list.toList());
+        assertEquals(expected.stream().filter(x -> x % 2 == 0).map(x -> x * 2).toList(), doubled.toList());
+        assertEquals(expected.stream().sorted(Comparator.reverseOrder()).toList(), sorted.toList());
+        for (int key = 0; key < 3; key++) {
+            var group = key;
+            assertEquals(expected.stream().filter(x -> x % 3 == group).toList(), groups.group(key).toList());
+        }
+        inserted.clear();
+        list.add(3);
+        list.add(4);
+        assertEquals(List.of(8), doubled.changes().get().changes().stream().map(ListChange::value).toList());
+        assertEquals(List.of(8), inserted);
+
+        list.clear();
+        assertEquals(0, sorted.size());
+        assertEquals(Set.of(), groups.keys());
+    }
+
+    @Test
+    void test32() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".snapshot");
+        var evaluations = new AtomicInteger();
+        var point = Codec.of(int[].class, (value, out) -> {
+            out.writeInt(value[0]);
+            out.writeInt(value[1]);
+        }, in -> new int[]{in.readInt(), in.readInt()});
+
+        cx.withCodec(point);
+        var name = cx.reactive("count");
+        var number = cx.reactive(20);
+        var label = cx.memo(() -> {
+            evaluations.incrementAndGet();
+            return name.get() + "=" + number.get();
+        });
+        var pair = cx.memo(() -> new int[]{number.get(), number.get() * 2});
+        cx.snapshot(file);
+        assertEquals(1, evaluations.get());
+
+        var restored = Context.create().withDedicatedService().withCodec(point).restore(file);
+        var name2 = restored.reactive("");
+        var number2 = restored.reactive(0);
+        var label2 = restored.memo(() -> {
+            evaluations.incrementAndGet();
+            return name2.get() + "=" + number2.get();
+        });
+        var pair2 = restored.memo(() -> new int[]{number2.get(), number2.get() * 2});
+        assertEquals("count=20", label2.get());
+        assertEquals(40, pair2.get()[1]);
+        assertEquals(1, evaluations.get());
+
+        // restored memos are still subscribed to their sources
+        number2.set(21);
+        assertEquals("count=21", label2.get());
+        assertEquals(42, pair2.get()[1]);
+        assertEquals(2, evaluations.get());
+
+        restored.dispose();
+        Files.delete(file);
+    }
+
+    @Test
+    void test33() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".journal");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        cx.withJournal(file, JournalPolicy.batched(16, Duration.ofMillis(5)));
+        var name = cx.reactive("a");
+        var number = cx.reactive(0);
+        for (int i = 1; i <= 100; i++) {
+            number.set(i);
+        }
+        number.update(x -> x * 2);
+        name.set("b");
+        cx.syncJournal();
+
+        var replayed = Context.create().withDedicatedService();
+        var name2 = replayed.reactive("");
+        var number2 = replayed.reactive(0);
+        var runs = new AtomicInteger();
+        replayed.effect(() -> {
+            number2.get();
+            runs.incrementAndGet();
+        });
+        assertEquals(102, replayed.replay(file, 50));
+        assertEquals(200, number2.get());
+        assertEquals("b", name2.get());
+        // one propagation pass per batch, plus the initial run
+        assertEquals(4, runs.get());
+
+        // a torn record is truncated when the journal is reopened
+        cx.dispose();
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 0, 0, 0, 42, 7}));
+        }
+        cx = Context.create().withDedicatedService().withJournal(file);
+        cx.reactive("c");
+        var number3 = cx.reactive(0);
+        number3.set(7);
+        cx.syncJournal();
+        var replayed2 = Context.create().withDedicatedService();
+        replayed2.reactive("");
+        var number4 = replayed2.reactive(0);
+        assertEquals(103, replayed2.replay(file));
+        assertEquals(7, number4.get());
+
+        replayed.dispose();
+        replayed2.dispose();
+    }
+
+    @Test
+    void test34() throws Exception {
+        cx.withChangeFeed(8);
+        var number = cx.reactive(0);
+        var doubled = cx.memo(() -> number.get() * 2);
+        var numberId = number.getId();
+        var doubledId = doubled.getId();
+
+        var cursor = cx.getChangeFeed().subscribe();
+        var numbers = new ArrayList<Integer>();
+        var doubles = new ArrayList<Integer>();
+        var versions = new ArrayList<Long>();
+        var consumer = new Thread(() -> {
+            ChangeFeed.Handler handler = (id, version, value) -> {
+                if (id == numberId) {
+                    numbers.add((Integer) value);
+                    versions.add(version);
+                }
+                if (id == doubledId) doubles.add((Integer) value);
+            };
+            while (numbers.size() < 100 || doubles.size() < 101) {
+                if (cursor.poll(handler) == 0) Thread.onSpinWait();
+            }
+        });
+        consumer.start();
+        for (int i = 1; i <= 100; i++) {
+            number.set(i);
+        }
+        consumer.join(5000);
+        cursor.close();
+
+        assertEquals(IntStream.rangeClosed(1, 100).boxed().toList(), numbers);
+        // the memo value computed on creation comes first
+        assertEquals(IntStream.rangeClosed(0, 100).map(x -> x * 2).boxed().toList(), doubles);
+        assertEquals(versions.stream().sorted().distinct().toList(), versions);
+        assertEquals(0, cursor.lag());
+    }
+
+    @Test
+    void test35() {
+        var number = cx.reactive(0);
+        var doubled = cx.memo(() -> number.get() * 2);
+        number.enableHistory(3);
+        number.set(1);
+        var version = number.getHistory().get(1).version();
+        number.set(2);
+        number.set(3);
+
+        assertEquals(List.of(1, 2, 3), number.getHistory().stream().map(HistoryEntry::value).toList());
+        assertEquals(2, number.getValueAgo(1).getUnchecked());
+        assertTrue(number.getValueAgo(3).isNothing());
+
+        number.rollback(version);
+        assertEquals(1, number.get());
+        assertEquals(2, doubled.get());
+        assertEquals(List.of(2, 3, 1), number.getHistory().stream().map(HistoryEntry::value).toList());
+
+        // versions that are no longer recorded fail the caller, and leave the value untouched
+        var failed = false;
+        try {
+            number.rollback(version);
+        } catch (ReactiveException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertEquals(1, number.get());
+    }
+
+    @Test
+    void test36() {
+        var trace = new ArrayList<String>();
+        var flag = cx.reactive(true);
+        var a = cx.reactive(1);
+        var b = cx.reactive(10);
+        var sum = cx.memo(() -> a.get() + b.get());
+        var chosen = cx.memo(() -> flag.get() ? sum.get() : a.get());
+        cx.effect(() -> trace.add("effect " + chosen.get()));
+        assertTrue(cx.freeze());
+        assertTrue(cx.isFrozen());
+
+        a.set(2);
+        b.set(20);
+        assertEquals(22, chosen.get());
+        assertTrue(cx.isFrozen());
+
+        // reading a new source thaws the schedule, reading known sources keeps it
+        flag.set(false);
+        assertEquals(2, chosen.get());
+        assertTrue(!cx.isFrozen());
+        assertTrue(cx.freeze());
+        flag.set(true);
+        assertEquals(22, chosen.get());
+        assertTrue(cx.isFrozen());
+
+        // creating a node thaws the schedule
+        cx.reactive(0);
+        assertTrue(!cx.isFrozen());
+        a.set(3);
+        assertEquals(23, chosen.get());
+        assertEquals(List.of("effect 11", "effect 12", "effect 22", "effect 2", "effect 22", "effect 23"), trace);
+    }
+
+    @Test
+    void test37() {
+        cx.withVersioning();
+        var trace = new ArrayList<String>();
+        var point = new PointModel(cx, 1, 2);
+        var initial = cx.pin();
+        cx.effect(() -> trace.add(point.getX() + "," + point.getY()));
+        point.setX(1);
+        point.setX(3);
+        point.update(p -> {
+            p.setX(4);
+            p.setY(5);
+        });
+        assertEquals(4, point.getX());
+        assertEquals(List.of("1,2", "3,2", "4,5"), trace);
+
+        // writes of the fields are committed like the writes of reactive values
+        long clock = cx.with(runtime -> {
+            return runtime.getClock();
+        });
+        assertEquals(3, clock);
+        try (var view = cx.pin()) {
+            assertEquals(4, point.getX(view));
+            assertEquals(5, point.getY(view));
+        }
+        assertEquals(1, point.getX(initial));
+        initial.close();
+    }
+
+    @Test
+    void test38() {
+        var trace = new ArrayList<Integer>();
+        var calls = new AtomicInteger();
+        var source = cx.reactive(1);
+        var base = cx.memo(() -> source.get());
+        var plusOne = base.map(x -> {
+            calls.incrementAndGet();
+            return x + 1;
+        });
+        var doubled = plusOne.map(x -> x * 2);
+        var result = doubled.map(x -> x - 3);
+        cx.effect(() -> trace.add(result.get()));
+
+        // the intermediate links are evaluated inline, and the end of the chain observes the base memo
+        cx.with(runtime -> {
+            assertTrue(plusOne.getLink().isFused());
+            assertTrue(doubled.getLink().isFused());
+            assertEquals(Set.of(base), runtime.getSources().get(result));
+            assertTrue(!runtime.getSources().containsKey(plusOne));
+        });
+        source.set(2);
+        assertEquals(3, result.get());
+        assertEquals(2, calls.get());
+
+        // reading a link splits it from the chain
+        assertEquals(6, doubled.get());
+        cx.with(runtime -> {
+            assertTrue(!doubled.getLink().isFused());
+            assertTrue(plusOne.getLink().isFused());
+        });
+        source.set(3);
+        assertEquals(8, doubled.get());
+        assertEquals(5, result.get());
+        assertEquals(List.of(1, 3, 5), trace);
+    }
+
+    @Test
+    void test39() {
+        try (var group = EventLoopGroup.create(2)) {
+            var contexts = new ArrayList<Context>();
+            var counters = new ArrayList<Reactive<Integer>>();
+            var totals = new ArrayList<AtomicInteger>();
+            for (int i = 0; i < 5; i++) {
+                var context = Context.create().withEventLoop(group);
+                var counter = context.reactive(0);
+                var total = new AtomicInteger();
+                context.effect(() -> total.addAndGet(counter.get()));
+                contexts.add(context);
+                counters.add(counter);
+                totals.add(total);
+            }
+            for (int i = 0; i < 5; i++) {
+                for (int j = 1; j <= 3; j++) {
+                    counters.get(i).set(j * (i + 1));
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(3 * (i + 1), counters.get(i).get());
+                assertEquals(6 * (i + 1), totals.get(i).get());
+            }
+
+            var metrics = group.getMetrics();
+            assertEquals(List.of(3, 2), metrics.stream().map(LoopMetrics::contexts).toList());
+            contexts.get(0).dispose();
+            assertEquals(2, group.getMetrics().get(0).contexts());
+            contexts.stream().skip(1).forEach(Context::dispose);
+        }
+    }
+
+    @Test
+    void test40() throws Exception {
+        var first = cx.reactive(1);
+        var second = cx.reactive(2);
+        var sum = cx.memo(() -> first.get() + second.get());
+        cx.batch(() -> {
+            first.set(10);
+            second.set(20);
+        });
+        var values = cx.read(view -> List.of(view.get(first), view.get(second), view.get(sum)));
+        assertEquals(List.of(10, 20, 30), values);
+
+        first.set(100);
+        var version = cx.readAsync(ReadView::getVersion).toCompletableFuture().get();
+        var total = cx.readAsync(view -> view.get(sum)).toCompletableFuture().get();
+        assertEquals(120, total);
+        assertEquals(version, cx.read(ReadView::getVersion));
+    }
+
+    @Test
+    void test41() throws Exception {
+        var a = cx.reactive(0);
+        var b = cx.reactive(0);
+        var runs = new AtomicInteger();
+        cx.effect(() -> {
+            a.get();
+            b.get();
+            runs.incrementAndGet();
+        });
+
+        // the writes of a task are propagated once
+        cx.withFlushPolicy(FlushPolicy.EndOfTask);
+        cx.submitWith(runtime -> {
+            a.set(1);
+            b.set(1);
+        }).get();
+        assertEquals(2, runs.get());
+
+        // the writes of all the queued tasks are propagated once
+        cx.withFlushPolicy(FlushPolicy.EndOfQueueDrain);
+        var gate = new CountDownLatch(1);
+        cx.submitWith(runtime -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        for (int i = 2; i < 12; i++) {
+            a.set(i);
+            b.set(i);
+        }
+        gate.countDown();
+        assertEquals(11, a.get());
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void test42() throws Exception {
+        cx.withFlushBudget(Duration.ofMillis(5));
+        var source = cx.reactive(0);
+        var doubled = cx.memo(() -> source.get() * 2);
+        var runs = new AtomicInteger();
+        var glitches = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            cx.effect(() -> {
+                if (doubled.get() != 2 * source.get()) glitches.incrementAndGet();
+                runs.incrementAndGet();
+                sleep(2);
+            });
+        }
+        cx.submitWith(runtime -> { }).get();
+        runs.set(0);
+
+        // the pass yields to the tasks submitted after the write
+        source.set(1);
+        int during = cx.submitWith(runtime -> {
+            return runs.get();
+        }).get();
+        assertTrue(during < 20);
+
+        // a write lands between two slices of the pass
+        source.set(2);
+        var deadline = System.currentTimeMillis() + 5000;
+        while (cx.read(view -> runs.get()) < 20 + during) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            sleep(5);
+        }
+        assertEquals(0, glitches.get());
+    }
+
+    @Test
+    void test43() throws Exception {
+        var data = cx.reactive(0);
+        var input = cx.reactive(0);
+        var runs = new AtomicInteger();
+        var seen = new AtomicInteger(-1);
+        var started = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            cx.effect(() -> {
+                if (data.get() == 0) return;
+                runs.incrementAndGet();
+                started.countDown();
+                sleep(2);
+            });
+        }
+        cx.effect(() -> {
+            if (input.get() != 0) seen.set(runs.get());
+        });
+        cx.submitWith(runtime -> { }).get();
+
+        // the urgent batch preempts the background pass between two effects
+        var background = ForkJoinPool.commonPool().submit(() -> {
+            cx.batch(Lane.Background, () -> {
+                data.set(1);
+            });
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cx.batch(Lane.Urgent, () -> {
+            input.set(1);
+        });
+        assertTrue(seen.get() < 20);
+
+        // the background pass resumes behind the urgent batch
+        background.get();
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(20, runs.get());
+
+        var metrics = cx.getLaneMetrics();
+        var urgent = metrics.get(Lane.Urgent.ordinal());
+        var slow = metrics.get(Lane.Background.ordinal());
+        assertEquals(1, urgent.flushes());
+        assertEquals(1, slow.flushes());
+        assertTrue(slow.preemptions() >= 1);
+        assertEquals(0, slow.pending());
+        assertTrue(urgent.maxNanos() < slow.maxNanos());
+    }
+
+    @Test
+    void test44() throws Exception {
+        cx.withVersioning();
+        var a = cx.reactive(1);
+        var b = cx.reactive(1);
+        var sum = cx.memo(() -> a.get() + b.get());
+
+        // a pinned view keeps reading its version while writes continue
+        var view = cx.pin();
+        cx.batch(() -> {
+            a.set(2);
+            b.set(2);
+        });
+        var later = cx.pin();
+        assertEquals(1, view.get(a));
+        assertEquals(2, view.get(sum));
+        assertEquals(2, later.get(b));
+        assertEquals(4, later.get(sum));
+        assertTrue(later.getVersion() > view.getVersion());
+
+        // readers on other threads never see half of a batch
+        var glitches = new AtomicInteger();
+        var readers = IntStream.range(0, 4).mapToObj(i -> ForkJoinPool.commonPool().submit(() -> {
+            for (int j = 0; j < 2000; j++) {
+                try (var pinned = cx.pin()) {
+                    var x = pinned.get(a);
+                    var y = pinned.get(b);
+                    if (!x.equals(y) || pinned.get(sum) != x + y) glitches.incrementAndGet();
+                }
+            }
+        })).toList();
+        for (int i = 3; i < 500; i++) {
+            var value = i;
+            cx.batch(() -> {
+                a.set(value);
+                b.set(value);
+            });
+        }
+        for (var reader : readers) {
+            reader.get();
+        }
+        assertEquals(0, glitches.get());
+
+        // the versions only pinned by the closed views are reclaimed
+        var versions = cx.getRuntime().getVersions();
+        assertTrue(versions.chainLength(a) > 1);
+        view.close();
+        later.close();
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(1, versions.chainLength(a));
+        assertEquals(1, versions.chainLength(sum));
+    }
+
+    @Test
+    void test45() {
+        var pool = new ForkJoinPool(4);
+        cx.withParallelPropagation(pool);
+        var number = cx.reactive(1);
+        var other = cx.reactive(0);
+        var rejected = new AtomicInteger();
+        var memos = new ArrayList<Memo<Integer>>();
+        for (int i = 1; i <= 4; i++) {
+            var factor = i;
+            memos.add(cx.pureMemo(() -> {
+                var value = number.get() * factor;
+                if (value > factor) {
+                    try {
+                        other.set(value);
+                    } catch (ReactiveException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return value;
+            }));
+        }
+        var total = cx.reactive(0);
+        cx.effect(() -> total.setUntracked(memos.stream().mapToInt(Memo::get).sum()));
+
+        // writes from the workers are rejected before touching the runtime
+        number.set(2);
+        assertEquals(20, total.get());
+        assertEquals(4, rejected.get());
+        assertEquals(0, other.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void test46() {
+        var pool = new ForkJoinPool(8);
+        cx.withParallelPropagation(pool);
+        var source = cx.reactive(0);
+        var running = new AtomicInteger();
+        var memos = new ArrayList<Memo<Integer>>();
+        for (int i = 0; i < 8; i++) {
+            var failing = i > 0;
+            memos.add(cx.pureMemo(() -> {
+                var value = source.get();
+                if (value == 0) return 0;
+                if (failing) throw new IllegalStateException();
+                running.incrementAndGet();
+                sleep(100);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+
+        // the failure is only rethrown once the other evaluations of its level are done
+        var failed = false;
+        try {
+            cx.with(runtime -> {
+                source.set(1);
+            });
+        } catch (ReactiveException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertEquals(0, running.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void test47() throws Exception {
+        var source = cx.reactive(0);
+        var seen = new AtomicInteger(-1);
+        cx.effect(() -> seen.set(source.get()));
+        cx.submitWith(runtime -> { }).get();
+
+        // the effect pending in the batch runs with the schedule compiled inside it
+        cx.batch(() -> {
+            source.set(1);
+            assertTrue(cx.freeze());
+        });
+        assertEquals(1, seen.get());
+        source.set(2);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(2, seen.get());
+    }
+
+    @Test
+    void test48() throws Exception {
+        var source = cx.reactive(0);
+        var memos = new ArrayList<Memo<Integer>>();
+        for (int i = 0; i < 30; i++) {
+            var upstream = List.copyOf(memos);
+            memos.add(cx.memo(() -> {
+                var max = source.get();
+                for (var memo : upstream) max = Math.max(max, memo.get());
+                return max;
+            }));
+        }
+        var last = memos.get(memos.size() - 1);
+        var seen = new AtomicInteger(-1);
+        cx.effect(() -> seen.set(last.get()));
+        cx.submitWith(runtime -> { }).get();
+        assertTrue(cx.freeze());
+
+        // dirty nodes reached through many edges are only traversed once
+        cx.with(runtime -> {
+            memos.forEach(BaseNode::setDirty);
+            source.set(1);
+        });
+        assertEquals(1, seen.get());
+        assertTrue(cx.isFrozen());
+    }
+
+    @Test
+    void test49() throws Exception {
+        var number = cx.reactive(0);
+        var completed = new AtomicInteger();
+        var publisher = cx.publisher(number, Runnable::run);
+        for (int i = 0; i < 100; i++) {
+            publisher.subscribe(new Flow.Subscriber<>() {
+                public void onSubscribe(Flow.Subscription s) {
+                    s.cancel();
+                }
+
+                public void onNext(Integer item) { }
+
+                public void onError(Throwable throwable) { }
+
+                public void onComplete() {
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        var live = new AtomicReference<Flow.Subscription>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            public void onSubscribe(Flow.Subscription s) {
+                live.set(s);
+            }
+
+            public void onNext(Integer item) { }
+
+            public void onError(Throwable throwable) { }
+
+            public void onComplete() {
+                completed.incrementAndGet();
+            }
+        });
+        cx.submitWith(runtime -> { }).get();
+        int cleanups = cx.with(runtime -> { return runtime.cleanups.get(number).size(); });
+        assertEquals(1, cleanups);
+
+        live.get().cancel();
+        cx.submitWith(runtime -> { }).get();
+        boolean removed = cx.with(runtime -> { return !runtime.cleanups.containsKey(number); });
+        assertTrue(removed);
+        assertEquals(0, completed.get());
+    }
+
+    @Test
+    void test50() throws Exception {
+        try (var group = EventLoopGroup.create(1)) {
+            var pinned = Context.create().withEventLoop(group);
+            var thread = pinned.getThread();
+            var other = group.assign(Context.create());
+            other.execute(() -> {
+                throw new IllegalStateException("failing task");
+            });
+            boolean reactive = pinned.submitWith(runtime -> { return pinned.isReactiveThread(); }).get();
+            assertTrue(reactive);
+            assertEquals(thread, pinned.getThread());
+            pinned.dispose();
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void test51() throws Exception {
+        var number = cx.reactive(0);
+        var gate = new Semaphore(0);
+        var seen = new CopyOnWriteArrayList<Integer>();
+        var job = cx.watchJob(number, (Consumer<Integer>) value -> {
+            seen.add(value);
+            gate.acquireUninterruptibly();
+        }, JobPolicy.conflate());
+
+        // the first change runs, the next ones are conflated into a single pending run
+        for (int i = 1; i <= 4; i++) {
+            number.set(i);
+            cx.submitWith(runtime -> { }).get();
+        }
+        var metrics = job.getMetrics();
+        assertEquals(4, metrics.submitted());
+        assertEquals(1, metrics.started());
+        assertEquals(2, metrics.conflated());
+        assertEquals(1, metrics.active());
+        assertEquals(1, metrics.pending());
+        assertTrue(job.isLoading());
+
+        gate.release(2);
+        await(() -> job.getMetrics().completed() == 2);
+        assertEquals(List.of(1, 4), seen);
+        metrics = job.getMetrics();
+        assertEquals(2, metrics.started());
+        assertEquals(0, metrics.failed());
+        assertEquals(0, metrics.active());
+        assertEquals(0, metrics.pending());
+        cx.submitWith(runtime -> { }).get();
+        assertFalse(job.isLoading());
+        job.dispose();
+    }
+
+    @Test
+    void test52() throws Exception {
+        var number = cx.reactive(0);
+        var gate = new Semaphore(0);
+        var seen = new CopyOnWriteArrayList<Integer>();
+        var job = cx.watchJob(number, (Consumer<Integer>) value -> {
+            seen.add(value);
+            gate.acquireUninterruptibly();
+        }, JobPolicy.queue(2));
+
+        // two changes wait for the run in progress, the last one does not fit
+        for (int i = 1; i <= 4; i++) {
+            number.set(i);
+            cx.submitWith(runtime -> { }).get();
+        }
+        var metrics = job.getMetrics();
+        assertEquals(1, metrics.started());
+        assertEquals(2, metrics.pending());
+        assertEquals(1, metrics.dropped());
+
+        gate.release(3);
+        await(() -> job.getMetrics().completed() == 3);
+        assertEquals(List.of(1, 2, 3), seen);
+        assertEquals(3, job.getMetrics().started());
+        job.dispose();
+    }
+
+    @Test
+    void test53() throws Exception {
+        var number = cx.reactive(0);
+        var gate = new Semaphore(0);
+        var seen = new CopyOnWriteArrayList<Integer>();
+        var job = cx.watchJob(number, (Consumer<Integer>) value -> {
+            seen.add(value);
+            gate.acquireUninterruptibly();
+            if (value == 4) throw new IllegalStateException("failing run");
+        }, JobPolicy.drop());
+
+        // changes during a run are dropped
+        for (int i = 1; i <= 3; i++) {
+            number.set(i);
+            cx.submitWith(runtime -> { }).get();
+        }
+        assertEquals(2, job.getMetrics().dropped());
+        assertEquals(0, job.getMetrics().pending());
+        gate.release();
+        await(() -> job.getMetrics().completed() == 1);
+        assertEquals(List.of(1), seen);
+
+        // failed runs still complete
+        number.set(4);
+        cx.submitWith(runtime -> { }).get();
+        gate.release();
+        await(() -> job.getMetrics().completed() == 2);
+        var metrics = job.getMetrics();
+        assertEquals(4, metrics.submitted());
+        assertEquals(2, metrics.started());
+        assertEquals(1, metrics.failed());
+        assertEquals(0, metrics.active());
+        job.dispose();
+    }
+
+    @Test
+    void test54() throws Exception {
+        var number = cx.reactive(0);
+        var interrupted = new AtomicInteger();
+        var finished = new CopyOnWriteArrayList<Integer>();
+        var gate = new Semaphore(0);
+        var job = cx.watchJob(number, (Consumer<Integer>) value -> {
+            try {
+                gate.acquire();
+                finished.add(value);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        }, JobPolicy.switchLatest());
+
+        // every change cancels the run in progress
+        for (int i = 1; i <= 3; i++) {
+            number.set(i);
+            cx.submitWith(runtime -> { }).get();
+        }
+        var metrics = job.getMetrics();
+        assertEquals(3, metrics.started());
+        assertEquals(2, metrics.cancelled());
+        assertEquals(1, metrics.active());
+
+        gate.release();
+        await(() -> job.getMetrics().completed() == 1);
+        assertEquals(List.of(3), finished);
+        assertTrue(interrupted.get() <= 2);
+        assertEquals(0, job.getMetrics().active());
+        cx.submitWith(runtime -> { }).get();
+        assertFalse(job.isLoading());
+        job.dispose();
+    }
+
+    /**
+     * Waits until the condition holds, for at most five seconds.
+     */
+    static void await(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            sleep(5);
+        }
+    }
+
+    @Test
+    void test55() throws Exception {
+        var list = cx.<Integer>list();
+        var groups = list.groupBy(x -> x % 3);
+        var expected = new ArrayList<Integer>();
+        list.add(0);
+        list.add(1);
+        expected.addAll(List.of(0, 1));
+
+        // repeated insertions between the same neighbours exhaust the labels between them
+        for (int i = 2; i < 200; i++) {
+            var index = i % 7 == 0 ? 0 : i % 5 == 0 ? expected.size() : 1;
+            expected.add(index, i);
+            list.add(index, i);
+        }
+        assertEquals(expected, list.toList());
+        for (int key = 0; key < 3; key++) {
+            var group = key;
+            assertEquals(expected.stream().filter(x -> x % 3 == group).toList(), groups.group(key).toList());
+        }
+
+        // deltas are committed like any other write
+        long before = cx.with(runtime -> { return runtime.getClock(); });
+        list.add(1000);
+        cx.submitWith(runtime -> { }).get();
+        long after = cx.with(runtime -> { return runtime.getClock(); });
+        assertTrue(after > before);
+        groups.dispose();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void test56() throws Exception {
+        var number = cx.reactive(1);
+        var parity = cx.memo(() -> number.get() % 2);
+        var runs = new AtomicInteger();
+        cx.effect(() -> {
+            parity.get();
+            runs.incrementAndGet();
+        });
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(1, runs.get());
+
+        // an evicted value still reachable elsewhere is compared with the recomputed one
+        cx.submitWith(runtime -> {
+            ((MemoState<Integer>) parity.getState()).evict();
+        }).get();
+        number.set(3);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(1, runs.get());
+        assertEquals(1, parity.getStats().evictions());
+
+        number.set(4);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void test57() throws Exception {
+        var feed = new ChangeFeed(4);
+        for (int i = 0; i < 5; i++) {
+            feed.claim(i, i, i);
+        }
+        // the cursor subscribes while the producer runs ahead with no consumer
+        var cursor = feed.subscribe();
+        for (int i = 5; i < 8; i++) {
+            feed.claim(i, i, i);
+        }
+        feed.publish();
+
+        // the producer waits for the new cursor before reusing the slot of its first entry
+        var producer = new Thread(() -> {
+            feed.claim(8, 8, 8);
+            feed.publish();
+        });
+        producer.start();
+        sleep(50);
+        var ids = new ArrayList<Long>();
+        cursor.poll((id, version, value) -> ids.add(id));
+        producer.join(1000);
+        assertEquals(List.of(4L, 5L, 6L, 7L), ids);
+        cursor.poll((id, version, value) -> ids.add(id));
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), ids);
+        cursor.close();
+    }
+
+    @Test
+    void test58() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".journal");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        Codec<byte[]> bytes = Codec.of(byte[].class, (value, out) -> {
+            out.writeInt(value.length);
+            out.write(value);
+        }, in -> {
+            var value = new byte[in.readInt()];
+            in.readFully(value);
+            return value;
+        });
+        cx.withCodec(bytes).withJournal(file);
+        var blob = cx.reactive(new byte[0]);
+        var number = cx.reactive(0);
+        // records larger than the read buffer, and records crossing its boundaries
+        for (int i = 1; i <= 5; i++) {
+            var value = new byte[100_000 + i];
+            value[value.length - 1] = (byte) i;
+            blob.set(value);
+            for (int j = 0; j < 1000; j++) {
+                number.set(i * 1000 + j);
+            }
+        }
+        cx.syncJournal();
+        long clock = cx.with(runtime -> { return runtime.getClock(); });
+
+        var replayed = Context.create().withDedicatedService().withCodec(bytes).withChangeFeed(1 << 16);
+        var blob2 = replayed.reactive(new byte[0]);
+        var number2 = replayed.reactive(0);
+        var cursor = replayed.getChangeFeed().subscribe();
+        assertEquals(5005, replayed.replay(file, 100));
+        assertEquals(100_005, blob2.get().length);
+        assertEquals(5, blob2.get()[100_004]);
+        assertEquals(5999, number2.get());
+
+        // replayed writes are committed at their journaled clock
+        long replayedClock = replayed.with(runtime -> { return runtime.getClock(); });
+        assertEquals(clock, replayedClock);
+        var changes = new AtomicInteger();
+        cursor.poll((id, version, value) -> changes.incrementAndGet());
+        assertEquals(5005, changes.get());
+        cursor.close();
+        replayed.dispose();
+    }
+
+    @Test
+    void test59() throws Exception {
+        var data = cx.reactive(0);
+        var input = cx.reactive(0);
+        var runs = new AtomicInteger();
+        var seen = new AtomicInteger(-1);
+        var started = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            cx.effect(() -> {
+                if (data.get() == 0) return;
+                runs.incrementAndGet();
+                started.countDown();
+                sleep(2);
+            });
+        }
+        cx.effect(() -> {
+            if (input.get() != 0) seen.set(runs.get());
+        });
+        assertTrue(cx.freeze());
+
+        // lanes are honoured by the frozen schedule, so the urgent batch preempts the background pass
+        var background = ForkJoinPool.commonPool().submit(() -> {
+            cx.batch(Lane.Background, () -> {
+                data.set(1);
+            });
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cx.batch(Lane.Urgent, () -> {
+            input.set(1);
+        });
+        assertTrue(seen.get() < 20);
+
+        background.get();
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(20, runs.get());
+        var slow = cx.getLaneMetrics().get(Lane.Background.ordinal());
+        assertTrue(slow.preemptions() >= 1);
+        assertEquals(0, slow.pending());
+        boolean frozen = cx.with(runtime -> { return runtime.frozen != null; });
+        assertTrue(frozen);
+    }
+
+    @Test
+    void test60() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".snapshot");
+        var text = "ä€𝄞".repeat(30_000);
+        cx.reactive(text);
+        cx.snapshot(file);
+
+        var restored = Context.create().withDedicatedService().restore(file);
+        var text2 = restored.reactive("");
+        String value = text2.get();
+        assertEquals(text, value);
+
+        restored.dispose();
+        Files.delete(file);
+    }
+
+    @Test
+    void test61() throws Exception {
+        var list = cx.<Integer>list();
+        var doubled = list.map(x -> x * 2);
+        var deltas = new ArrayList<ListDelta<Integer>>();
+        var mapped = new ArrayList<ListDelta<Integer>>();
+        cx.effect(() -> deltas.add(list.changes().get()));
+        cx.effect(() -> mapped.add(doubled.changes().get()));
+        cx.submitWith(runtime -> { }).get();
+        deltas.clear();
+        mapped.clear();
+
+        // the writes of a batch are published as a single delta, in order
+        cx.batch(() -> {
+            list.add(1);
+            list.add(2);
+            list.add(3);
+            list.set(0, 4);
+        });
+        assertEquals(1, deltas.size());
+        assertEquals(List.of(1, 2, 3, 4), deltas.get(0).changes().stream().map(ListChange::value).toList());
+        assertEquals(1, mapped.size());
+        assertEquals(List.of(2, 4, 6, 8), mapped.get(0).changes().stream().map(ListChange::value).toList());
+
+        // replaying the delta rebuilds the list
+        var replayed = new ArrayList<Integer>();
+        for (var change : deltas.get(0).changes()) {
+            switch (change.kind()) {
+                case Insert -> replayed.add(change.index(), change.value());
+                case Update -> replayed.set(change.index(), change.value());
+                case Remove -> replayed.remove(change.index());
+            }
+        }
+        assertEquals(list.toList(), replayed);
+
+        list.add(5);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(2, deltas.size());
+        assertEquals(List.of(5), deltas.get(1).changes().stream().map(ListChange::value).toList());
+        assertTrue(deltas.get(0).version() < deltas.get(1).version());
+    }
+
+    @Test
+    void test62() {
+        var synced = Context.create();
+        MemoFamily<Integer, Integer> squares = synced.memoFamily(key -> () -> key * key, 2);
+        var first = squares.get(1);
+        var second = squares.get(2);
+        var effect = synced.effect(() -> {
+            first.get();
+            second.get();
+        });
+
+        // eviction runs inline, and keeps the memo being returned even when all the others are observed
+        int nine = squares.get(3).get();
+        assertEquals(9, nine);
+        assertEquals(3, squares.size());
+
+        // the next lookup evicts it once it is no longer the latest one
+        var third = squares.get(3);
+        int sixteen = squares.get(4).get();
+        assertEquals(16, sixteen);
+        assertEquals(1, squares.getStats().evictions());
+        var failed = false;
+        try {
+            third.get();
+        } catch (ReactiveException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        effect.dispose();
+        synced.dispose();
+    }
+
+    @Test
+    void test63() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".snapshot");
+        var number = cx.reactive(42);
+        var doubled = cx.memo(() -> number.get() * 2);
+        cx.snapshot(file);
+
+        // restored values are loaded lazily, and versioned as soon as versioning starts
+        var restored = Context.create().withDedicatedService().restore(file);
+        var number2 = restored.reactive(0);
+        var doubled2 = restored.memo(() -> number2.get() * 2);
+        restored.withVersioning();
+        try (var view = restored.pin()) {
+            int value = view.get(number2);
+            int derived = view.get(doubled2);
+            assertEquals(42, value);
+            assertEquals(84, derived);
+        }
+        int current = number2.get();
+        assertEquals(42, current);
+
+        restored.dispose();
+        Files.delete(file);
+    }
+
+    @Test
+    void test64() throws Exception {
+        var flag = cx.reactive(true);
+        var x = cx.reactive(0);
+        var y = cx.reactive(0);
+        var z = cx.reactive(0);
+        var runs = new Counter();
+        cx.effect(() -> {
+            runs.increment();
+            if (flag.get()) {
+                x.get();
+                y.get();
+            } else {
+                y.get();
+            }
+        });
+        assertTrue(cx.freeze());
+
+        // a run reading all its sources again keeps the schedule
+        y.set(1);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(2, runs.count());
+        assertTrue(cx.isFrozen());
+
+        // a run dropping a source thaws the schedule, and no longer depends on it
+        flag.set(false);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(3, runs.count());
+        assertFalse(cx.isFrozen());
+        for (int i = 1; i <= 5; i++) {
+            x.set(i);
+            cx.submitWith(runtime -> { }).get();
+        }
+        assertEquals(3, runs.count());
+
+        // a run thawing the schedule by reading a new source drops the sources it did not read before
+        var other = cx.reactive(true);
+        var count = new Counter();
+        cx.effect(() -> {
+            count.increment();
+            if (other.get()) {
+                x.get();
+            } else {
+                z.get();
+            }
+        });
+        assertTrue(cx.freeze());
+        other.set(false);
+        cx.submitWith(runtime -> { }).get();
+        assertFalse(cx.isFrozen());
+        assertEquals(2, count.count());
+        x.set(10);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(2, count.count());
+        z.set(1);
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(3, count.count());
+    }
+
+    @Test
+    void test65() throws Exception {
+        var input = cx.reactive(0);
+        var sampled = cx.sample(input, Duration.ofMillis(50));
+        var seen = new CopyOnWriteArrayList<Integer>();
+        cx.watchEffect(sampled, (Consumer<Integer>) seen::add);
+
+        // changes within a period are sampled once, and quiet periods emit nothing
+        cx.batch(() -> {
+            input.set(1);
+            input.set(2);
+            input.set(3);
+        });
+        await(() -> sampled.getUntracked() == 3);
+        Thread.sleep(150);
+        assertEquals(List.of(3), seen);
+        input.set(4);
+        await(() -> seen.size() == 2);
+        assertEquals(List.of(3, 4), seen);
+
+        // synced contexts have no runtime thread to apply timers and producer elements on
+        var synced = Context.create();
+        var source = synced.reactive(0);
+        List<Runnable> rejected = List.of(
+                () -> synced.sample(source, Duration.ofMillis(50)),
+                () -> synced.debounce(source, Duration.ofMillis(50)),
+                () -> synced.interval(Duration.ofMillis(50)),
+                () -> synced.timeout(Duration.ofMillis(50)),
+                () -> synced.sink(0),
+                () -> synced.fromPublisher(new SubmissionPublisher<Integer>(), 0)
+        );
+        for (var action : rejected) {
+            var failed = false;
+            try {
+                action.run();
+            } catch (ReactiveException e) {
+                failed = true;
+            }
+            assertTrue(failed);
+        }
+        synced.dispose();
+    }
+
+    @Test
+    void test66() throws Exception {
+        var file = Files.createTempFile("reactives4j", ".snapshot");
+        var decodes = new CopyOnWriteArrayList<Thread>();
+        var boxed = Codec.of(AtomicInteger.class, (value, out) -> out.writeInt(value.get()), in -> {
+            decodes.add(Thread.currentThread());
+            return new AtomicInteger(in.readInt());
+        });
+        cx.withCodec(boxed);
+        var base = cx.reactive(new AtomicInteger(5));
+        var factor = cx.reactive(1);
+        for (int i = 1; i <= 8; i++) {
+            var offset = i;
+            cx.pureMemo(() -> base.get().get() * factor.get() + offset);
+        }
+        cx.snapshot(file);
+
+        // the restored source is first read by parallel evaluations, and loaded once on the runtime thread before
+        var pool = new ForkJoinPool(4);
+        var restored = Context.create().withDedicatedService().withCodec(boxed).withParallelPropagation(pool)
+                .restore(file);
+        var base2 = restored.reactive(new AtomicInteger());
+        var factor2 = restored.reactive(0);
+        var memos = new ArrayList<Memo<Integer>>();
+        for (int i = 1; i <= 8; i++) {
+            var offset = i;
+            memos.add(restored.pureMemo(() -> {
+                sleep(5);
+                return base2.get().get() * factor2.get() + offset;
+            }));
+        }
+        var total = restored.reactive(0);
+        restored.effect(() -> total.setUntracked(memos.stream().mapToInt(Memo::get).sum()));
+        assertEquals(5 * 8 + 36, total.get());
+        assertTrue(decodes.isEmpty());
+        factor2.set(2);
+        assertEquals(10 * 8 + 36, total.get());
+        assertEquals(List.of(restored.getThread()), decodes);
+
+        restored.dispose();
+        pool.shutdown();
+        Files.delete(file);
+    }
+
+    @Test
+    void test67() throws Exception {
+        var list = cx.<Integer>list();
+        var groups = list.groupBy(x -> x % 3);
+        list.add(-1);
+        list.add(-2);
+
+        // inserts between the same two neighbours, and at the front, use up the free labels around them
+        var expected = new ArrayList<>(List.of(-1, -2));
+        for (int i = 0; i < 3000; i++) {
+            var index = i % 2 == 0 ? 1 : 0;
+            list.add(index, i);
+            expected.add(index, i);
+        }
+        cx.submitWith(runtime -> { }).get();
+        assertEquals(expected, list.toList());
+        for (int key = -2; key < 3; key++) {
+            var group = key;
+            assertEquals(expected.stream().filter(x -> x % 3 == group).toList(), groups.group(key).toList());
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     static class Counter {
 
         private int count = 0;
@@ -300,4 +1889,82 @@ public class ReactiveTest {
 
     }
 
+    /**
+     * Reactive model as generated by the processor for a class with two int fields.
+     */
+    static final class PointModel extends ReactiveObject {
+
+        private int x;
+
+        private int y;
+
+        PointModel(Context cx, int x, int y) {
+            super(cx, 2);
+            this.x = x;
+            this.y = y;
+            initialized();
+        }
+
+        int getX() {
+            track(0);
+            return x;
+        }
+
+        int getX(PinnedView view) {
+            return (int) pinned(view, 0);
+        }
+
+        void setX(int value) {
+            if (!isOwner()) {
+                write(() -> setX(value));
+                return;
+            }
+            if (this.x == value) return;
+            this.x = value;
+            changed(0);
+        }
+
+        int getY() {
+            track(1);
+            return y;
+        }
+
+        int getY(PinnedView view) {
+            return (int) pinned(view, 1);
+        }
+
+        void setY(int value) {
+            if (!isOwner()) {
+                write(() -> setY(value));
+                return;
+            }
+            if (this.y == value) return;
+            this.y = value;
+            changed(1);
+        }
+
+        @Override
+        protected Object readField(int field) {
+            return switch (field) {
+                case 0 -> x;
+                case 1 -> y;
+                default -> throw new IndexOutOfBoundsException(field);
+            };
+        }
+
+        @Override
+        protected void writeField(int field, Object value) {
+            switch (field) {
+                case 0 -> this.x = (int) value;
+                case 1 -> this.y = (int) value;
+                default -> throw new IndexOutOfBoundsException(field);
+            }
+        }
+
+        void update(Consumer<PointModel> changes) {
+            batch(() -> changes.accept(this));
+        }
+
+    }
+
 }